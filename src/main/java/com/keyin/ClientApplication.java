@@ -1,23 +1,63 @@
 package com.keyin;
 
 import com.keyin.hero.HeroService;
+import com.keyin.http.BackendBalancer;
+import com.keyin.http.EventStream;
+import com.keyin.http.HttpTransport;
+import com.keyin.http.MutationBatcher;
 import com.keyin.location.LocationService;
 import com.keyin.plushie.PlushieService;
 import com.keyin.ui.GameInterfaceGUI;
 
+import java.net.URI;
+
 import javax.swing.SwingUtilities;
 
 public class ClientApplication {
     public static void main(String[] args) {
-        String baseUrl = "http://localhost:8080";
+        // Read once when the JDK's connection pool starts, so set before the first HttpClient is built.
+        // The transport's keep-warm pings are timed to land inside this keep-alive window.
+        setDefaultProperty("jdk.httpclient.keepalive.timeout", "30");
+        setDefaultProperty("jdk.httpclient.connectionPoolSize", "16");
+
+        ClientConfig config = ClientConfig.load();
+
+        HttpTransport transport = new HttpTransport(
+                new BackendBalancer(config.getBackendUrls(), config.getBalancing()));
+        config.getLimits().forEach(transport::setLimits);
+        if (Boolean.getBoolean("keyin.http.metrics")) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.print(transport.getMetrics().dump())));
+        }
+
+        HeroService heroService = new HeroService(transport);
+        LocationService locationService = new LocationService(transport);
+        PlushieService plushieService = new PlushieService(transport);
+        MutationBatcher mutationBatcher = new MutationBatcher(transport);
+        // Dependent writes go out as one request; a backend without /batch falls back after its first 404
+        mutationBatcher.setCompositeEndpoint(URI.create(transport.getBaseUrl() + "/batch"));
 
-        HeroService heroService = new HeroService(baseUrl);
-        LocationService locationService = new LocationService(baseUrl);
-        PlushieService plushieService = new PlushieService(baseUrl);
+        // Backend pushes location and plushie changes instead of us re-polling on every screen
+        EventStream events = new EventStream(transport, URI.create(transport.getBaseUrl() + "/events"));
+        locationService.subscribe(events);
+        plushieService.subscribe(events);
+        events.start();
+
+        // Fetch hero, locations and plushies concurrently while the welcome screen is shown
+        new ClientBootstrap(heroService, locationService, plushieService).start();
 
         SwingUtilities.invokeLater(() -> {
-            GameInterfaceGUI gui = new GameInterfaceGUI(heroService, locationService, plushieService);
+            GameInterfaceGUI gui = new GameInterfaceGUI(heroService, locationService, plushieService,
+                    mutationBatcher, transport);
             gui.setVisible(true);
         });
     }
+
+    /**
+     * Leaves a value passed with -D on the command line alone
+     */
+    private static void setDefaultProperty(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package com.keyin;
+
+import com.keyin.hero.HeroDTO;
+import com.keyin.hero.HeroService;
+import com.keyin.location.LocationDTO;
+import com.keyin.location.LocationService;
+import com.keyin.plushie.PlushieDTO;
+import com.keyin.plushie.PlushieService;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Loads the game data while the welcome screen is up. The hero, the location
+ * catalog and the plushie catalog are requested at the same time over the shared
+ * transport, so later screens find them already in the service caches.
+ */
+public class ClientBootstrap {
+
+    /**
+     * What the bootstrap managed to load; a part that failed is null
+     */
+    public record Snapshot(HeroDTO hero, List<LocationDTO> locations, List<PlushieDTO> plushies) {
+    }
+
+    private final HeroService heroService;
+    private final LocationService locationService;
+    private final PlushieService plushieService;
+
+    public ClientBootstrap(HeroService heroService, LocationService locationService, PlushieService plushieService) {
+        this.heroService = heroService;
+        this.locationService = locationService;
+        this.plushieService = plushieService;
+    }
+
+    /**
+     * Starts all three fetches at once. A failing part is logged and doesn't hold up the others.
+     */
+    public CompletableFuture<Snapshot> start() {
+        long start = System.nanoTime();
+
+        CompletableFuture<HeroDTO> hero = heroService.getCurrentHeroAsync()
+                .exceptionally(logFailure("hero"));
+        CompletableFuture<List<LocationDTO>> locations = locationService.getAllLocationsAsync()
+                .exceptionally(logFailure("locations"));
+        CompletableFuture<List<PlushieDTO>> plushies = plushieService.syncPlushiesAsync()
+                .exceptionally(logFailure("plushies"));
+
+        return CompletableFuture.allOf(hero, locations, plushies)
+                .thenApply(done -> {
+                    System.out.println("Bootstrap finished in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+                    return new Snapshot(hero.join(), locations.join(), plushies.join());
+                });
+    }
+
+    private static <T> Function<Throwable, T> logFailure(String part) {
+        return error -> {
+            System.err.println("Bootstrap could not load " + part + ": " + error.getMessage());
+            return null;
+        };
+    }
+}
@@ -0,0 +1,118 @@
+package com.keyin;
+
+import com.keyin.http.BackendBalancer;
+import com.keyin.http.RequestLimiter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Client settings from application.properties on the classpath. A system property
+ * with the same name (-Dkeyin.backend.urls=...) overrides the file.
+ */
+public class ClientConfig {
+    public static final String BACKEND_URLS = "keyin.backend.urls";
+    public static final String BACKEND_BALANCING = "keyin.backend.balancing";
+    public static final String LIMITS_PREFIX = "keyin.limits.";
+    public static final String DEFAULT_BACKEND_URL = "http://localhost:8080";
+
+    private final List<String> backendUrls;
+    private final BackendBalancer.Strategy balancing;
+    private final Map<String, RequestLimiter.Limits> limits;
+
+    public ClientConfig(List<String> backendUrls, BackendBalancer.Strategy balancing) {
+        this(backendUrls, balancing, Map.of());
+    }
+
+    public ClientConfig(List<String> backendUrls, BackendBalancer.Strategy balancing,
+                        Map<String, RequestLimiter.Limits> limits) {
+        this.backendUrls = List.copyOf(backendUrls);
+        this.balancing = balancing;
+        this.limits = Map.copyOf(limits);
+    }
+
+    public static ClientConfig load() {
+        Properties properties = new Properties();
+        try (InputStream in = ClientConfig.class.getResourceAsStream("/application.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not read application.properties: " + e.getMessage());
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.equals(BACKEND_URLS) || name.equals(BACKEND_BALANCING) || name.startsWith(LIMITS_PREFIX)) {
+                properties.setProperty(name, System.getProperty(name));
+            }
+        }
+        return from(properties);
+    }
+
+    /**
+     * Backend URLs are comma separated; balancing is round-robin or least-outstanding.
+     * Per-service limits are keyin.limits.&lt;service&gt;.rate, .burst, .max-in-flight and .queue.
+     */
+    public static ClientConfig from(Properties properties) {
+        List<String> urls = new ArrayList<>();
+        for (String url : properties.getProperty(BACKEND_URLS, DEFAULT_BACKEND_URL).split(",")) {
+            if (!url.isBlank()) {
+                urls.add(url.trim());
+            }
+        }
+        if (urls.isEmpty()) {
+            urls.add(DEFAULT_BACKEND_URL);
+        }
+
+        String balancing = properties.getProperty(BACKEND_BALANCING, "round-robin").trim()
+                .toUpperCase(Locale.ROOT).replace('-', '_');
+        BackendBalancer.Strategy strategy;
+        try {
+            strategy = BackendBalancer.Strategy.valueOf(balancing);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + BACKEND_BALANCING + ": " + balancing, e);
+        }
+        return new ClientConfig(urls, strategy, limitsFrom(properties));
+    }
+
+    private static Map<String, RequestLimiter.Limits> limitsFrom(Properties properties) {
+        Map<String, RequestLimiter.Limits> limits = new TreeMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (!name.startsWith(LIMITS_PREFIX) || !name.endsWith(".max-in-flight")) {
+                continue;
+            }
+            String service = name.substring(LIMITS_PREFIX.length(), name.length() - ".max-in-flight".length());
+            String prefix = LIMITS_PREFIX + service + ".";
+            try {
+                int maxInFlight = Integer.parseInt(properties.getProperty(name).trim());
+                double rate = Double.parseDouble(properties.getProperty(prefix + "rate", "0").trim());
+                int burst = Integer.parseInt(properties.getProperty(prefix + "burst", String.valueOf(maxInFlight)).trim());
+                int queue = Integer.parseInt(properties.getProperty(prefix + "queue", "0").trim());
+                limits.put(service, new RequestLimiter.Limits(rate, burst, maxInFlight, queue));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid limits for service " + service + ": " + e.getMessage(), e);
+            }
+        }
+        return limits;
+    }
+
+    public List<String> getBackendUrls() {
+        return backendUrls;
+    }
+
+    public BackendBalancer.Strategy getBalancing() {
+        return balancing;
+    }
+
+    /**
+     * Client-side limits per service; services without an entry are not limited
+     */
+    public Map<String, RequestLimiter.Limits> getLimits() {
+        return limits;
+    }
+}
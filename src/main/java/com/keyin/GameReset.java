@@ -0,0 +1,57 @@
+package com.keyin;
+
+import com.keyin.location.LocationDTO;
+import com.keyin.location.LocationService;
+import com.keyin.plushie.PlushieService;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Resets the game on the backend. Both resets go out at the same time and the caller
+ * gets the reset map straight away, so the UI doesn't wait on them; the catalogs are
+ * refreshed from the backend once both resets have been confirmed.
+ */
+public class GameReset {
+
+    /**
+     * A reset in progress. The locations are what the map should show until the
+     * refreshed catalog arrives, or null if no catalog was loaded.
+     */
+    public record Started(List<LocationDTO> locations, CompletableFuture<List<LocationDTO>> refreshed) {
+    }
+
+    private final LocationService locationService;
+    private final PlushieService plushieService;
+
+    public GameReset(LocationService locationService, PlushieService plushieService) {
+        this.locationService = locationService;
+        this.plushieService = plushieService;
+    }
+
+    /**
+     * Starts the reset. The refreshed location catalog completes once both resets are
+     * confirmed; if either fails every local copy of the catalog is dropped and the failure
+     * is passed on.
+     */
+    public Started start() {
+        List<LocationDTO> optimistic = locationService.previewReset();
+
+        CompletableFuture<Void> plushies = plushieService.resetAllPlushiesAsync();
+        CompletableFuture<Void> locations = locationService.resetAllLocationsAsync();
+
+        CompletableFuture<List<LocationDTO>> refreshed = CompletableFuture.allOf(plushies, locations)
+                .thenCompose(done -> {
+                    CompletableFuture<List<LocationDTO>> catalog = locationService.getAllLocationsAsync();
+                    // Reloads the plushie catalog the collection screens are served from; not waited for
+                    plushieService.syncPlushiesAsync().exceptionally(error -> null);
+                    return catalog;
+                })
+                .whenComplete((catalog, error) -> {
+                    if (error != null) {
+                        locationService.invalidate();
+                    }
+                });
+        return new Started(optimistic, refreshed);
+    }
+}
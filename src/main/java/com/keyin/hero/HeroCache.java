@@ -0,0 +1,45 @@
+package com.keyin.hero;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local copy of the heroes we have seen, keyed by hero id.
+ * Kept up to date by the create/update responses, so most reads never leave the client.
+ */
+public class HeroCache {
+
+    /**
+     * How fresh a hero read has to be
+     */
+    public enum Freshness {
+        /** Serve the local copy if there is one, otherwise fetch it */
+        CACHED,
+        /** Ask the backend whether the local copy is still current (conditional GET) */
+        REVALIDATE,
+        /** Ignore every local copy and download the hero again */
+        FORCE_FRESH
+    }
+
+    private final Map<Long, HeroDTO> heroes = new ConcurrentHashMap<>();
+
+    public HeroDTO get(Long heroId) {
+        return heroId != null ? heroes.get(heroId) : null;
+    }
+
+    public void put(HeroDTO hero) {
+        if (hero != null && hero.getId() != null) {
+            heroes.put(hero.getId(), hero);
+        }
+    }
+
+    public void invalidate(Long heroId) {
+        if (heroId != null) {
+            heroes.remove(heroId);
+        }
+    }
+
+    public void clear() {
+        heroes.clear();
+    }
+}
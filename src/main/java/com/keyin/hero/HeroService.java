@@ -1,50 +1,77 @@
 package com.keyin.hero;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.keyin.http.HttpTransport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class HeroService {
-    private final HttpClient client;
+    private final HttpTransport transport;
     private final ObjectMapper objectMapper;
     private final String baseUrl;
-    private HeroDTO currentHero;
-    private Long currentHeroId = 1L;
+    private final HeroCache heroCache = new HeroCache();
+    private volatile Long currentHeroId = 1L;
 
-    public HeroService(String baseUrl) {
-        this.client = HttpClient.newHttpClient();
-        this.objectMapper = new ObjectMapper();
-        this.baseUrl = baseUrl + "/api/heroes";
+    public HeroService(HttpTransport transport) {
+        this.transport = transport;
+        this.objectMapper = transport.getObjectMapper();
+        this.baseUrl = transport.getBaseUrl() + "/api/heroes";
     }
 
     public HeroDTO updateHero(String name) throws Exception {
-        String jsonBody = objectMapper.writeValueAsString(Map.of("name", name));
+        return HttpTransport.await(updateHeroAsync(name));
+    }
+
+    public CompletableFuture<HeroDTO> updateHeroAsync(String name) {
+        String jsonBody;
+        try {
+            jsonBody = objectMapper.writeValueAsString(Map.of("name", name));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
 
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/" + currentHeroId))
+                .uri(heroUri(currentHeroId))
                 .header("Content-Type", "application/json")
                 .PUT(HttpRequest.BodyPublishers.ofString(jsonBody))
                 .build();
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("Failed to update hero: " + response.statusCode());
-        }
-
-        currentHero = objectMapper.readValue(response.body(), HeroDTO.class);
-        if (currentHero != null && currentHero.getId() != null) {
-            currentHeroId = currentHero.getId();
-            System.out.println("Updated hero ID: " + currentHeroId);
-        }
-        return currentHero;
+        return transport.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        HttpTransport.discard(response);
+                        throw new RuntimeException("Failed to update hero: " + response.statusCode());
+                    }
+
+                    HeroDTO hero = rememberWritten(readHero(response.body()));
+                    if (hero != null && hero.getId() != null) {
+                        currentHeroId = hero.getId();
+                        System.out.println("Updated hero ID: " + currentHeroId);
+                    }
+                    return hero;
+                });
     }
 
     public HeroDTO createHero(String name) throws Exception {
-        String jsonBody = objectMapper.writeValueAsString(Map.of("name", name));
+        return HttpTransport.await(createHeroAsync(name));
+    }
+
+    public CompletableFuture<HeroDTO> createHeroAsync(String name) {
+        String jsonBody;
+        try {
+            jsonBody = objectMapper.writeValueAsString(Map.of("name", name));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
 
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(baseUrl))
@@ -52,38 +79,50 @@ public class HeroService {
                 .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
                 .build();
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("Failed to create hero: " + response.statusCode());
-        }
-
-        currentHero = objectMapper.readValue(response.body(), HeroDTO.class);
-        if (currentHero != null && currentHero.getId() != null) {
-            currentHeroId = currentHero.getId();
-            System.out.println("Set current hero ID to: " + currentHeroId);
-        }
-        return currentHero;
+        return transport.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        HttpTransport.discard(response);
+                        throw new RuntimeException("Failed to create hero: " + response.statusCode());
+                    }
+
+                    HeroDTO hero = rememberWritten(readHero(response.body()));
+                    if (hero != null && hero.getId() != null) {
+                        currentHeroId = hero.getId();
+                        System.out.println("Set current hero ID to: " + currentHeroId);
+                    }
+                    return hero;
+                });
     }
 
     public HeroDTO getCurrentHero() throws Exception {
-        String cacheParam = "?t=" + System.currentTimeMillis();
-
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/" + currentHeroId + cacheParam))
-                .GET()
-                .build();
+        return HttpTransport.await(getCurrentHeroAsync());
+    }
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    public HeroDTO getCurrentHero(HeroCache.Freshness freshness) throws Exception {
+        return HttpTransport.await(getHeroAsync(currentHeroId, freshness));
+    }
 
-        System.out.println("Raw hero response: " + response.body());
+    public CompletableFuture<HeroDTO> getCurrentHeroAsync() {
+        return getHeroAsync(currentHeroId, HeroCache.Freshness.CACHED);
+    }
 
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("Failed to get hero: " + response.statusCode());
+    /**
+     * Reads a hero, going to the backend only as far as the requested freshness needs.
+     */
+    public CompletableFuture<HeroDTO> getHeroAsync(Long heroId, HeroCache.Freshness freshness) {
+        if (freshness == HeroCache.Freshness.CACHED) {
+            HeroDTO cached = heroCache.get(heroId);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
         }
 
-        currentHero = objectMapper.readValue(response.body(), HeroDTO.class);
-        return currentHero;
+        URI uri = heroUri(heroId);
+        CompletableFuture<HeroDTO> response = freshness == HeroCache.Freshness.FORCE_FRESH
+                ? transport.fetchJsonAsync(uri, new TypeReference<HeroDTO>() {}, "Failed to get hero")
+                : transport.getJsonAsync(uri, new TypeReference<HeroDTO>() {}, "Failed to get hero");
+        return response.thenApply(this::remember);
     }
 
     public Long getCurrentHeroId() {
@@ -96,4 +135,30 @@ public class HeroService {
             System.out.println("Manually set hero ID to: " + heroId);
         }
     }
-}
\ No newline at end of file
+
+    private HeroDTO remember(HeroDTO hero) {
+        heroCache.put(hero);
+        return hero;
+    }
+
+    private HeroDTO rememberWritten(HeroDTO hero) {
+        if (hero != null && hero.getId() != null) {
+            heroCache.put(hero);
+            // The body parsed for the last conditional GET no longer matches
+            transport.getConditionalCache().invalidate(heroUri(hero.getId()));
+        }
+        return hero;
+    }
+
+    private URI heroUri(Long heroId) {
+        return URI.create(baseUrl + "/" + heroId);
+    }
+
+    private HeroDTO readHero(InputStream body) {
+        try (body) {
+            return objectMapper.readValue(body, HeroDTO.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.keyin.http;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Spreads requests across backend replicas, either round-robin or to the replica with
+ * the fewest requests in flight. A replica that fails several times in a row is
+ * ejected for a while (passive health checking); once the ejection runs out it is
+ * tried again, and one more failure sends it straight back out.
+ */
+public class BackendBalancer {
+
+    public enum Strategy { ROUND_ROBIN, LEAST_OUTSTANDING }
+
+    public static final int DEFAULT_EJECTION_THRESHOLD = 3;
+    public static final Duration DEFAULT_EJECTION_DURATION = Duration.ofSeconds(10);
+
+    /**
+     * One replica and its health
+     */
+    public static class Backend {
+        private final String baseUrl;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private int consecutiveFailures;
+        private boolean ejected;
+        private long ejectedAt;
+
+        Backend(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+    }
+
+    private final List<Backend> backends = new ArrayList<>();
+    private final Strategy strategy;
+    private final int ejectionThreshold;
+    private final Duration ejectionDuration;
+    private final LongSupplier nanoClock;
+    private int next;
+
+    public BackendBalancer(List<String> baseUrls, Strategy strategy) {
+        this(baseUrls, strategy, DEFAULT_EJECTION_THRESHOLD, DEFAULT_EJECTION_DURATION, System::nanoTime);
+    }
+
+    BackendBalancer(List<String> baseUrls, Strategy strategy, int ejectionThreshold, Duration ejectionDuration,
+                    LongSupplier nanoClock) {
+        if (baseUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one backend URL is required");
+        }
+        for (String baseUrl : baseUrls) {
+            backends.add(new Backend(stripTrailingSlash(baseUrl)));
+        }
+        this.strategy = strategy;
+        this.ejectionThreshold = ejectionThreshold;
+        this.ejectionDuration = ejectionDuration;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * The URL the services build their requests on; the balancer maps it to a replica per attempt
+     */
+    public String getBaseUrl() {
+        return backends.get(0).getBaseUrl();
+    }
+
+    public List<Backend> getBackends() {
+        return List.copyOf(backends);
+    }
+
+    /**
+     * Picks the replica for the next attempt and counts it as in flight.
+     * If every replica is ejected the one due back soonest is used anyway.
+     */
+    public synchronized Backend acquire() {
+        long now = nanoClock.getAsLong();
+        List<Backend> healthy = new ArrayList<>();
+        for (Backend backend : backends) {
+            if (!isEjected(backend, now)) {
+                healthy.add(backend);
+            }
+        }
+
+        Backend chosen;
+        if (healthy.isEmpty()) {
+            chosen = backends.get(0);
+            for (Backend backend : backends) {
+                if (backend.ejectedAt - chosen.ejectedAt < 0) {
+                    chosen = backend;
+                }
+            }
+        } else if (strategy == Strategy.LEAST_OUTSTANDING) {
+            // Ties go round-robin so idle replicas still share the load
+            int offset = next++;
+            chosen = healthy.get(Math.floorMod(offset, healthy.size()));
+            for (int i = 0; i < healthy.size(); i++) {
+                Backend candidate = healthy.get(Math.floorMod(offset + i, healthy.size()));
+                if (candidate.getOutstanding() < chosen.getOutstanding()) {
+                    chosen = candidate;
+                }
+            }
+        } else {
+            chosen = healthy.get(Math.floorMod(next++, healthy.size()));
+        }
+        chosen.outstanding.incrementAndGet();
+        return chosen;
+    }
+
+    /**
+     * Reports how an attempt on a replica ended. Connection failures and 5xx count against it.
+     */
+    public synchronized void release(Backend backend, boolean succeeded) {
+        backend.outstanding.decrementAndGet();
+        if (succeeded) {
+            backend.consecutiveFailures = 0;
+            return;
+        }
+        backend.consecutiveFailures++;
+        if (backend.consecutiveFailures >= ejectionThreshold) {
+            long now = nanoClock.getAsLong();
+            if (!isEjected(backend, now)) {
+                System.err.println("Ejecting backend " + backend.getBaseUrl() + " after "
+                        + backend.consecutiveFailures + " failures");
+            }
+            backend.ejected = true;
+            backend.ejectedAt = now;
+        }
+    }
+
+    /**
+     * An attempt that was abandoned, e.g. a cancelled hedge; says nothing about the replica's health
+     */
+    public void abandon(Backend backend) {
+        backend.outstanding.decrementAndGet();
+    }
+
+    public synchronized boolean isEjected(Backend backend) {
+        return isEjected(backend, nanoClock.getAsLong());
+    }
+
+    private boolean isEjected(Backend backend, long now) {
+        return backend.ejected && now - backend.ejectedAt < ejectionDuration.toNanos();
+    }
+
+    /**
+     * The same request aimed at the chosen replica, for URIs under the logical base URL
+     */
+    URI route(URI uri, Backend backend) {
+        URI logical = URI.create(getBaseUrl());
+        if (backend.getBaseUrl().equals(getBaseUrl()) || !isUnder(uri, logical)) {
+            return uri;
+        }
+        String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+        String rest = path.substring(basePath(logical).length());
+        return URI.create(backend.getBaseUrl() + rest + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery()));
+    }
+
+    /**
+     * Same scheme, host and port, and a path at or below the base path. A plain prefix
+     * match would take http://host:8080 to cover http://host:80801 or /api to cover /apix.
+     */
+    private static boolean isUnder(URI uri, URI base) {
+        if (uri.getScheme() == null || !uri.getScheme().equalsIgnoreCase(base.getScheme())
+                || uri.getHost() == null || !uri.getHost().equalsIgnoreCase(base.getHost())
+                || port(uri) != port(base)) {
+            return false;
+        }
+        String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+        String basePath = basePath(base);
+        return basePath.isEmpty() || path.equals(basePath) || path.startsWith(basePath + "/");
+    }
+
+    private static String basePath(URI base) {
+        return base.getRawPath() == null ? "" : stripTrailingSlash(base.getRawPath());
+    }
+
+    private static int port(URI uri) {
+        if (uri.getPort() != -1) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,10 @@
+package com.keyin.http;
+
+/**
+ * Thrown instead of sending a request while the backend's circuit is open
+ */
+public class CircuitOpenException extends RuntimeException {
+    public CircuitOpenException(String service) {
+        super("Backend unavailable, not calling '" + service + "' until it recovers");
+    }
+}
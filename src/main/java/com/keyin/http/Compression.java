@@ -0,0 +1,205 @@
+package com.keyin.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Transparent gzip/deflate support for the shared transport. java.net.http never
+ * decompresses on its own, so responses are inflated chunk by chunk as they arrive,
+ * before they reach whatever body handler the caller asked for.
+ */
+public class Compression {
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final int OUTPUT_CHUNK = 8192;
+
+    /**
+     * Wraps a body handler so compressed responses are inflated on the way in
+     */
+    public static <T> HttpResponse.BodyHandler<T> decoding(HttpResponse.BodyHandler<T> downstream) {
+        return responseInfo -> {
+            String encoding = responseInfo.headers().firstValue("Content-Encoding")
+                    .orElse("identity").trim().toLowerCase(Locale.ROOT);
+            return switch (encoding) {
+                case "gzip", "x-gzip" -> new InflatingSubscriber<>(downstream.apply(responseInfo), true);
+                case "deflate" -> new InflatingSubscriber<>(downstream.apply(responseInfo), false);
+                default -> downstream.apply(responseInfo);
+            };
+        };
+    }
+
+    /**
+     * Inflates each incoming chunk and hands the output straight on. Upstream demand
+     * passes through unchanged, since every chunk in produces exactly one chunk out.
+     */
+    private static class InflatingSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+        private final HttpResponse.BodySubscriber<T> downstream;
+        private final boolean gzip;
+        private final ByteArrayOutputStream header = new ByteArrayOutputStream();
+        private Inflater inflater;
+        private Flow.Subscription subscription;
+        private boolean failed;
+
+        InflatingSubscriber(HttpResponse.BodySubscriber<T> downstream, boolean gzip) {
+            this.downstream = downstream;
+            this.gzip = gzip;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return downstream.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            downstream.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            if (failed) {
+                return;
+            }
+            List<ByteBuffer> output = new ArrayList<>();
+            try {
+                for (ByteBuffer item : items) {
+                    inflate(item, output);
+                }
+            } catch (DataFormatException e) {
+                failed = true;
+                subscription.cancel();
+                end();
+                downstream.onError(new IOException("Malformed compressed response", e));
+                return;
+            }
+            downstream.onNext(output);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            end();
+            if (!failed) {
+                downstream.onError(throwable);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            end();
+            if (!failed) {
+                downstream.onComplete();
+            }
+        }
+
+        private void inflate(ByteBuffer input, List<ByteBuffer> output) throws DataFormatException {
+            if (inflater == null) {
+                input = startInflater(input);
+                if (inflater == null) {
+                    return;
+                }
+            }
+            if (inflater.finished() || !input.hasRemaining()) {
+                // Anything after the end of the stream is the gzip trailer
+                return;
+            }
+
+            inflater.setInput(input);
+            while (true) {
+                ByteBuffer chunk = ByteBuffer.allocate(OUTPUT_CHUNK);
+                int inflated = inflater.inflate(chunk);
+                if (inflated > 0) {
+                    chunk.flip();
+                    output.add(chunk);
+                    continue;
+                }
+                if (inflater.finished() || inflater.needsInput()) {
+                    break;
+                }
+                if (inflater.needsDictionary()) {
+                    throw new DataFormatException("Preset dictionaries are not supported");
+                }
+            }
+        }
+
+        /**
+         * Buffers the stream header until it is complete, then creates the inflater.
+         * Returns whatever of the input follows the header.
+         */
+        private ByteBuffer startInflater(ByteBuffer input) throws DataFormatException {
+            byte[] bytes = new byte[input.remaining()];
+            input.get(bytes);
+            header.write(bytes, 0, bytes.length);
+            byte[] buffered = header.toByteArray();
+
+            int bodyStart;
+            if (gzip) {
+                bodyStart = gzipHeaderLength(buffered);
+                if (bodyStart < 0) {
+                    return ByteBuffer.allocate(0);
+                }
+                inflater = new Inflater(true);
+            } else {
+                if (buffered.length < 2) {
+                    return ByteBuffer.allocate(0);
+                }
+                // "deflate" should be zlib-wrapped, but some servers send raw deflate
+                boolean zlib = (buffered[0] & 0x0f) == 8 && (((buffered[0] & 0xff) << 8) | (buffered[1] & 0xff)) % 31 == 0;
+                inflater = new Inflater(!zlib);
+                bodyStart = 0;
+            }
+            header.reset();
+            return ByteBuffer.wrap(buffered, bodyStart, buffered.length - bodyStart);
+        }
+
+        /**
+         * Length of the gzip member header (RFC 1952), or -1 if more bytes are needed
+         */
+        private static int gzipHeaderLength(byte[] data) throws DataFormatException {
+            if (data.length < 10) {
+                return -1;
+            }
+            if ((data[0] & 0xff) != 0x1f || (data[1] & 0xff) != 0x8b || data[2] != 8) {
+                throw new DataFormatException("Not in gzip format");
+            }
+            int flags = data[3] & 0xff;
+            int position = 10;
+            if ((flags & 0x04) != 0) {
+                if (data.length < position + 2) {
+                    return -1;
+                }
+                position += 2 + ((data[position] & 0xff) | (data[position + 1] & 0xff) << 8);
+            }
+            for (int zeroTerminated : new int[]{0x08, 0x10}) {
+                if ((flags & zeroTerminated) != 0) {
+                    while (position < data.length && data[position] != 0) {
+                        position++;
+                    }
+                    if (position >= data.length) {
+                        return -1;
+                    }
+                    position++;
+                }
+            }
+            if ((flags & 0x02) != 0) {
+                position += 2;
+            }
+            return position <= data.length ? position : -1;
+        }
+
+        private void end() {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+    }
+}
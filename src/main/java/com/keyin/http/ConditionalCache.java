@@ -0,0 +1,48 @@
+package com.keyin.http;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the ETag / Last-Modified validators of each GET resource together
+ * with the already parsed body, so a 304 can be answered without re-parsing.
+ * Doubles as the last known good copy of each resource for offline mode.
+ */
+public class ConditionalCache {
+    private static final int MAX_ENTRIES = 256;
+
+    public record Entry(String etag, String lastModified, Object value) {
+    }
+
+    private final Map<URI, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<URI, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public synchronized Entry get(URI uri) {
+        return entries.get(uri);
+    }
+
+    /**
+     * Stores the parsed body with whatever validators the response carried. Entries
+     * without validators are never sent conditionally, but still serve as the last
+     * good copy while the backend is unreachable.
+     */
+    public synchronized void store(URI uri, HttpHeaders headers, Object value) {
+        String etag = headers.firstValue("ETag").orElse(null);
+        String lastModified = headers.firstValue("Last-Modified").orElse(null);
+        entries.put(uri, new Entry(etag, lastModified, value));
+    }
+
+    public synchronized void invalidate(URI uri) {
+        entries.remove(uri);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
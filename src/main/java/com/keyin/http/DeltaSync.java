@@ -0,0 +1,199 @@
+package com.keyin.http;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps a local copy of a collection in step with the backend by asking only for
+ * what changed since the last sync.
+ *
+ * A full response carries the catalog version in X-Sync-Version. The next sync sends
+ * it back as ?since=, and a response marked X-Sync-Delta: true holds only the records
+ * changed since then, which are merged in by id. Anything else (no version, an
+ * unmarked body, 410 Gone for an expired cursor) falls back to the full catalog.
+ * A backend that never sends a version is synced with the plain full fetch from then on.
+ */
+public class DeltaSync<T> {
+    public static final String VERSION_HEADER = "X-Sync-Version";
+    public static final String DELTA_HEADER = "X-Sync-Delta";
+
+    private final HttpTransport transport;
+    private final URI collectionUri;
+    private final TypeReference<List<T>> type;
+    private final Function<T, Long> idOf;
+    private final Supplier<CompletableFuture<List<T>>> fullFetch;
+    private final String failureMessage;
+
+    private final Map<Long, T> catalog = new LinkedHashMap<>();
+    private String cursor;
+    private boolean supported = true;
+    private long generation;
+    private CompletableFuture<List<T>> inFlight;
+
+    public DeltaSync(HttpTransport transport, URI collectionUri, TypeReference<List<T>> type, Function<T, Long> idOf,
+                     Supplier<CompletableFuture<List<T>>> fullFetch, String failureMessage) {
+        this.transport = transport;
+        this.collectionUri = collectionUri;
+        this.type = type;
+        this.idOf = idOf;
+        this.fullFetch = fullFetch;
+        this.failureMessage = failureMessage;
+    }
+
+    /**
+     * Brings the local catalog up to date and returns it. Concurrent callers share one sync.
+     */
+    public synchronized CompletableFuture<List<T>> sync() {
+        if (inFlight != null) {
+            return inFlight.copy();
+        }
+        if (!supported) {
+            return fullFetch.get();
+        }
+
+        long syncGeneration = generation;
+        String sentCursor = cursor;
+        CompletableFuture<List<T>> started = request(sentCursor)
+                .thenCompose(response -> {
+                    if (response.statusCode() == 410 && sentCursor != null) {
+                        // The backend no longer remembers our cursor
+                        HttpTransport.discard(response);
+                        return request(null);
+                    }
+                    return CompletableFuture.completedFuture(response);
+                })
+                .thenApply(response -> apply(response, syncGeneration))
+                .exceptionallyCompose(this::recover);
+        inFlight = started;
+        started.whenComplete((catalog, error) -> finished(started));
+        return started.copy();
+    }
+
+    /**
+     * Forgets the cursor and the local catalog, so the next sync transfers the whole catalog again
+     */
+    public synchronized void reset() {
+        cursor = null;
+        generation++;
+        inFlight = null;
+        catalog.clear();
+    }
+
+    /**
+     * Keeps the cursor but lets go of the sync in flight, which may have been answered
+     * before one of our own writes. The next sync asks the backend again, and the
+     * abandoned one no longer updates the local catalog.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        inFlight = null;
+    }
+
+    /**
+     * The local catalog without going to the backend, or null until a versioned sync has
+     * loaded it. A backend without versions is never kept in step locally, so that is always null.
+     */
+    public synchronized List<T> peek() {
+        return cursor == null ? null : Collections.unmodifiableList(new ArrayList<>(catalog.values()));
+    }
+
+    /**
+     * Applies a change pushed by the backend to one record by swapping in the changed
+     * copy the function returns; lists handed out earlier keep the old record.
+     * Returns false if the record isn't known yet; the next sync will bring it.
+     */
+    public synchronized boolean update(Long id, UnaryOperator<T> change) {
+        T record = catalog.get(id);
+        if (record == null) {
+            return false;
+        }
+        catalog.put(id, change.apply(record));
+        return true;
+    }
+
+    /**
+     * The version the next sync asks from, or null before the first versioned response
+     */
+    public synchronized String getCursor() {
+        return cursor;
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> request(String since) {
+        URI uri = since == null
+                ? collectionUri
+                : URI.create(collectionUri + "?since=" + URLEncoder.encode(since, StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(uri)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        return transport.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    private List<T> apply(HttpResponse<InputStream> response, long syncGeneration) {
+        if (response.statusCode() != 200) {
+            HttpTransport.discard(response);
+            throw new RuntimeException(failureMessage + ": HTTP " + response.statusCode());
+        }
+
+        List<T> records;
+        try (InputStream body = response.body()) {
+            records = transport.getObjectMapper().readValue(body, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        String version = response.headers().firstValue(VERSION_HEADER).orElse(null);
+        boolean delta = response.headers().firstValue(DELTA_HEADER).map(Boolean::parseBoolean).orElse(false);
+        synchronized (this) {
+            Map<Long, T> merged = delta ? new LinkedHashMap<>(catalog) : new LinkedHashMap<>();
+            for (T record : records) {
+                merged.put(idOf.apply(record), record);
+            }
+            if (version == null) {
+                supported = false;
+            }
+            // A reset or one of our writes since this sync started makes its result outdated
+            if (syncGeneration == generation) {
+                catalog.clear();
+                catalog.putAll(merged);
+                cursor = version;
+            }
+            return Collections.unmodifiableList(new ArrayList<>(merged.values()));
+        }
+    }
+
+    private CompletableFuture<List<T>> recover(Throwable error) {
+        // Same degraded mode as the transport's GETs: keep serving what we have while the backend is unreachable
+        Throwable cause = HttpTransport.unwrap(error);
+        synchronized (this) {
+            if (!catalog.isEmpty() && HttpTransport.isUnreachable(cause)) {
+                return CompletableFuture.completedFuture(Collections.unmodifiableList(new ArrayList<>(catalog.values())));
+            }
+        }
+        return CompletableFuture.failedFuture(cause);
+    }
+
+    private synchronized void finished(CompletableFuture<List<T>> sync) {
+        if (inFlight == sync) {
+            inFlight = null;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.keyin.http;
+
+import java.net.URI;
+
+/**
+ * Maps request URIs onto the service they belong to
+ */
+public class Endpoints {
+
+    /**
+     * The service a URI belongs to: its first path segment, skipping a leading "api"
+     * ("/api/heroes/1" is "heroes", "/location/reset" is "location").
+     */
+    public static String serviceOf(URI uri) {
+        String path = uri.getPath();
+        if (path == null) {
+            return "";
+        }
+        String[] segments = path.split("/");
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i].isEmpty() || (segments[i].equals("api") && i + 1 < segments.length)) {
+                continue;
+            }
+            return segments[i];
+        }
+        return "";
+    }
+
+    /**
+     * The endpoint a request hits, with numeric ids folded into a placeholder
+     * ("PUT /location/3" becomes "PUT /location/{id}").
+     */
+    public static String templateOf(String method, URI uri) {
+        String path = uri.getPath() == null || uri.getPath().isEmpty() ? "/" : uri.getPath();
+        StringBuilder template = new StringBuilder(method).append(' ');
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            template.append('/').append(segment.chars().allMatch(Character::isDigit) ? "{id}" : segment);
+        }
+        if (template.charAt(template.length() - 1) == ' ') {
+            template.append('/');
+        }
+        return template.toString();
+    }
+}
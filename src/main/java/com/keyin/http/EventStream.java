@@ -0,0 +1,201 @@
+package com.keyin.http;
+
+import com.keyin.util.BackgroundExecutor;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Consumes a Server-Sent Events stream from the backend and hands each event to the
+ * listeners registered for its type. A dropped connection is reopened after the
+ * reconnect delay, sending Last-Event-ID so the backend can replay what was missed.
+ * A backend without an event stream (404, 405 or 501) is not retried.
+ */
+public class EventStream implements AutoCloseable {
+    public static final Duration DEFAULT_RECONNECT_DELAY = Duration.ofSeconds(3);
+    private static final Set<Integer> UNSUPPORTED_STATUSES = Set.of(404, 405, 501);
+
+    /**
+     * One dispatched event. The type defaults to "message" as in the SSE spec.
+     */
+    public record Event(String id, String type, String data) {
+    }
+
+    private final HttpTransport transport;
+    private final URI uri;
+    private final Map<String, List<Consumer<Event>>> listeners = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private volatile String lastEventId;
+    private volatile Duration reconnectDelay = DEFAULT_RECONNECT_DELAY;
+    private volatile Stream<String> current;
+
+    // Parser state for the event being read; only touched by the reading thread
+    private final StringBuilder data = new StringBuilder();
+    private String eventType;
+    private String eventId;
+
+    public EventStream(HttpTransport transport, URI uri) {
+        this.transport = transport;
+        this.uri = uri;
+    }
+
+    /**
+     * Registers a listener for one event type. Listeners run on the stream's reader
+     * thread, so UI work has to be handed to the EDT.
+     */
+    public void on(String type, Consumer<Event> listener) {
+        listeners.computeIfAbsent(type, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Opens the stream on a background thread and keeps it open until closed
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        BackgroundExecutor.run(this::readLoop);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        Stream<String> lines = current;
+        if (lines != null) {
+            lines.close();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public String getLastEventId() {
+        return lastEventId;
+    }
+
+    private void readLoop() {
+        while (running) {
+            try {
+                connectAndRead();
+            } catch (UnsupportedOperationException e) {
+                System.err.println(e.getMessage() + ", not reconnecting");
+                running = false;
+            } catch (Exception e) {
+                if (running) {
+                    System.err.println("Event stream lost: " + e.getMessage());
+                }
+            }
+            if (running) {
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+            }
+        }
+    }
+
+    private void connectAndRead() throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(uri)
+                .header("Accept", "text/event-stream")
+                .header("Cache-Control", "no-cache")
+                .GET();
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+
+        HttpResponse<Stream<String>> response = HttpTransport.await(
+                transport.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofLines()));
+        if (UNSUPPORTED_STATUSES.contains(response.statusCode())) {
+            HttpTransport.discard(response);
+            throw new UnsupportedOperationException("Backend has no event stream: HTTP " + response.statusCode());
+        }
+        if (response.statusCode() != 200) {
+            HttpTransport.discard(response);
+            throw new RuntimeException("Failed to open event stream: HTTP " + response.statusCode());
+        }
+
+        try (Stream<String> lines = response.body()) {
+            current = lines;
+            resetEvent();
+            lines.takeWhile(line -> running).forEach(this::accept);
+        } finally {
+            current = null;
+        }
+    }
+
+    /**
+     * Feeds one line of the stream to the parser; a blank line dispatches the event read so far
+     */
+    void accept(String line) {
+        if (line.isEmpty()) {
+            dispatch();
+            return;
+        }
+        if (line.startsWith(":")) {
+            // Comment, typically a keep-alive
+            return;
+        }
+
+        int colon = line.indexOf(':');
+        String field = colon < 0 ? line : line.substring(0, colon);
+        String value = colon < 0 ? "" : line.substring(colon + 1);
+        if (value.startsWith(" ")) {
+            value = value.substring(1);
+        }
+
+        switch (field) {
+            case "event" -> eventType = value;
+            case "data" -> data.append(value).append('\n');
+            case "id" -> eventId = value;
+            case "retry" -> {
+                try {
+                    reconnectDelay = Duration.ofMillis(Long.parseLong(value));
+                } catch (NumberFormatException ignored) {
+                    // The spec says to ignore malformed retry values
+                }
+            }
+            default -> {
+                // Unknown fields are ignored
+            }
+        }
+    }
+
+    private void dispatch() {
+        if (eventId != null) {
+            lastEventId = eventId;
+        }
+        if (data.length() > 0) {
+            String payload = data.substring(0, data.length() - 1);
+            Event event = new Event(lastEventId, eventType != null ? eventType : "message", payload);
+            for (Consumer<Event> listener : listeners.getOrDefault(event.type(), List.of())) {
+                try {
+                    listener.accept(event);
+                } catch (RuntimeException e) {
+                    System.err.println("Event listener failed for " + event.type() + ": " + e.getMessage());
+                }
+            }
+        }
+        resetEvent();
+    }
+
+    private void resetEvent() {
+        data.setLength(0);
+        eventType = null;
+        eventId = null;
+    }
+}
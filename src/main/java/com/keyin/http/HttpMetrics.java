@@ -0,0 +1,172 @@
+package com.keyin.http;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client-side HTTP metrics, kept per endpoint ("GET /location", "PUT /plushie/{id}/collect").
+ * The transport records every call: counts, status codes, bytes on the wire, the time
+ * each attempt took to get response headers, and the total latency including retries.
+ */
+public class HttpMetrics {
+
+    /**
+     * A point-in-time copy of one endpoint's metrics. Latencies are in microseconds.
+     * Attempts counts every exchange sent, retries and hedges included, however it ended.
+     */
+    public record Snapshot(String endpoint, long requests, long failures, Map<Integer, Long> statuses,
+                           long bytesIn, long bytesOut, long attempts, long headersP50, long headersP99,
+                           long latencyP50, long latencyP99, long latencyP999, long latencyMax) {
+    }
+
+    /**
+     * Live metrics for one endpoint
+     */
+    public static class Endpoint {
+        private final String name;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final ConcurrentMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+        private final LongAdder attempts = new LongAdder();
+        private final LatencyHistogram headerLatency = new LatencyHistogram();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        Endpoint(String name) {
+            this.name = name;
+        }
+
+        void recordRequest(long requestBytes) {
+            requests.increment();
+            if (requestBytes > 0) {
+                bytesOut.add(requestBytes);
+            }
+        }
+
+        void recordResponse(int statusCode, long latencyNanos) {
+            statuses.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+            latency.recordMicros(latencyNanos / 1000);
+        }
+
+        /**
+         * One exchange going out on the wire; a call makes several when it is retried or hedged
+         */
+        void recordAttempt() {
+            attempts.increment();
+        }
+
+        /**
+         * A call that ended without a response: connection failure, timeout or open circuit
+         */
+        void recordFailure(long latencyNanos) {
+            failures.increment();
+            latency.recordMicros(latencyNanos / 1000);
+        }
+
+        /**
+         * Time from sending one attempt to its response headers, which is also what hedging keys off
+         */
+        public LatencyHistogram getHeaderLatency() {
+            return headerLatency;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * Counts the response body bytes as they arrive, before any decompression
+         */
+        <T> HttpResponse.BodyHandler<T> counting(HttpResponse.BodyHandler<T> handler) {
+            return responseInfo -> new CountingSubscriber<>(handler.apply(responseInfo), bytesIn);
+        }
+
+        Snapshot snapshot() {
+            Map<Integer, Long> statusCounts = new TreeMap<>();
+            statuses.forEach((code, count) -> statusCounts.put(code, count.sum()));
+            return new Snapshot(name, requests.sum(), failures.sum(), statusCounts, bytesIn.sum(), bytesOut.sum(),
+                    attempts.sum(), headerLatency.valueAtPercentile(50), headerLatency.valueAtPercentile(99),
+                    latency.valueAtPercentile(50), latency.valueAtPercentile(99), latency.valueAtPercentile(99.9),
+                    latency.getMaxMicros());
+        }
+    }
+
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public Endpoint endpoint(String name) {
+        return endpoints.computeIfAbsent(name, Endpoint::new);
+    }
+
+    /**
+     * Copies the current metrics of every endpoint seen so far, sorted by endpoint
+     */
+    public List<Snapshot> snapshot() {
+        List<Snapshot> snapshots = new ArrayList<>();
+        new TreeMap<>(endpoints).values().forEach(endpoint -> snapshots.add(endpoint.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * The snapshot as a plain-text table, for logging
+     */
+    public String dump() {
+        StringBuilder dump = new StringBuilder();
+        dump.append(String.format("%-28s %6s %5s %-22s %9s %9s %8s %8s %8s%n",
+                "endpoint", "calls", "fail", "statuses", "in", "out", "p50 ms", "p99 ms", "max ms"));
+        for (Snapshot snapshot : snapshot()) {
+            dump.append(String.format("%-28s %6d %5d %-22s %9d %9d %8.2f %8.2f %8.2f%n",
+                    snapshot.endpoint(), snapshot.requests(), snapshot.failures(), snapshot.statuses(),
+                    snapshot.bytesIn(), snapshot.bytesOut(), snapshot.latencyP50() / 1000.0,
+                    snapshot.latencyP99() / 1000.0, snapshot.latencyMax() / 1000.0));
+        }
+        return dump.toString();
+    }
+
+    private static class CountingSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+        private final HttpResponse.BodySubscriber<T> downstream;
+        private final LongAdder bytes;
+
+        CountingSubscriber(HttpResponse.BodySubscriber<T> downstream, LongAdder bytes) {
+            this.downstream = downstream;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return downstream.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            downstream.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            for (ByteBuffer item : items) {
+                bytes.add(item.remaining());
+            }
+            downstream.onNext(items);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            downstream.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            downstream.onComplete();
+        }
+    }
+}
@@ -0,0 +1,539 @@
+package com.keyin.http;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.keyin.util.BackgroundExecutor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Shared HTTP transport for the REST services.
+ * Owns the single HttpClient (and with it the keep-alive connection pool) so every
+ * service reuses the same connections to the backend. Response handling runs on
+ * the shared virtual-thread executor.
+ */
+public class HttpTransport {
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final int BREAKER_FAILURE_THRESHOLD = 5;
+    private static final Duration BREAKER_OPEN_DURATION = Duration.ofSeconds(10);
+    private static final Duration DEFAULT_DEADLINE = Duration.ofSeconds(8);
+    private static final int HEDGE_MIN_SAMPLES = 20;
+    // The JDK closes pooled connections idle for 30s (jdk.httpclient.keepalive.timeout).
+    // Idle plus one check period stays under that, so a ping always lands in time.
+    static final Duration KEEP_WARM_IDLE = Duration.ofSeconds(20);
+    static final Duration KEEP_WARM_CHECK_PERIOD = Duration.ofSeconds(5);
+
+    private final BackendBalancer balancer;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConditionalCache conditionalCache = new ConditionalCache();
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Duration> deadlines = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, RequestLimiter> limiters = new ConcurrentHashMap<>();
+    private final HttpMetrics metrics = new HttpMetrics();
+    private volatile RetryPolicy retryPolicy = RetryPolicy.defaults();
+    private volatile Duration defaultDeadline = DEFAULT_DEADLINE;
+    private volatile boolean hedgingEnabled = true;
+    private final AtomicLong keepWarmGeneration = new AtomicLong();
+    private final LongSupplier nanoClock;
+    private volatile long lastActivity;
+
+    public HttpTransport(String baseUrl) {
+        this(new BackendBalancer(List.of(baseUrl), BackendBalancer.Strategy.ROUND_ROBIN));
+    }
+
+    /**
+     * Spreads requests across the balancer's replicas. Services build their URIs on
+     * the first replica's URL and each attempt is routed to the replica picked for it.
+     */
+    public HttpTransport(BackendBalancer balancer) {
+        this(balancer, HttpClient.newBuilder()
+                // Concurrent requests are multiplexed over one connection where the server speaks HTTP/2
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(BackgroundExecutor.executor())
+                .build());
+    }
+
+    /**
+     * Wraps an already configured client, mainly so tests can supply their own.
+     */
+    public HttpTransport(String baseUrl, HttpClient client) {
+        this(new BackendBalancer(List.of(baseUrl), BackendBalancer.Strategy.ROUND_ROBIN), client);
+    }
+
+    public HttpTransport(BackendBalancer balancer, HttpClient client) {
+        this(balancer, client, System::nanoTime);
+    }
+
+    HttpTransport(BackendBalancer balancer, HttpClient client, LongSupplier nanoClock) {
+        this.balancer = balancer;
+        this.client = client;
+        this.nanoClock = nanoClock;
+        this.lastActivity = nanoClock.getAsLong();
+    }
+
+    public String getBaseUrl() {
+        return balancer.getBaseUrl();
+    }
+
+    public BackendBalancer getBalancer() {
+        return balancer;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    public ConditionalCache getConditionalCache() {
+        return conditionalCache;
+    }
+
+    public HttpMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sends a request, retrying it according to the retry policy. Compressed
+     * responses are inflated transparently. Writes get an
+     * Idempotency-Key that stays the same across retries, so the backend can
+     * recognise a repeated collect or complete and apply it only once.
+     */
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        String endpoint = Endpoints.templateOf(request.method(), request.uri());
+        HttpMetrics.Endpoint stats = metrics.endpoint(endpoint);
+        long start = System.nanoTime();
+        stats.recordRequest(request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L));
+
+        // Time spent queued behind the service's limits counts against the deadline
+        long deadline = start + deadlineFor(endpoint, request.uri()).toNanos();
+        String service = Endpoints.serviceOf(request.uri());
+        RequestLimiter limiter = limiters.get(service);
+        CompletableFuture<HttpResponse<T>> sent;
+        if (limiter == null) {
+            sent = dispatch(request, handler, service, endpoint, stats, deadline);
+        } else {
+            sent = limiter.acquire(Duration.ofNanos(deadline - System.nanoTime()))
+                    .thenCompose(permit -> dispatch(request, handler, service, endpoint, stats, deadline)
+                            .whenComplete((response, error) -> limiter.release()));
+        }
+        return sent.whenComplete((response, error) -> {
+            if (error != null) {
+                stats.recordFailure(System.nanoTime() - start);
+            } else {
+                stats.recordResponse(response.statusCode(), System.nanoTime() - start);
+            }
+        });
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> dispatch(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                            String service, String endpoint,
+                                                            HttpMetrics.Endpoint stats, long deadline) {
+        // Fail fast while the service's circuit is open instead of waiting for a timeout
+        CircuitBreaker breaker = circuitBreaker(service);
+        if (!breaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new CircuitOpenException(breaker.getName()));
+        }
+
+        // Bytes are counted as they come off the wire, before decompression
+        HttpResponse.BodyHandler<T> decoding = stats.counting(Compression.decoding(handler));
+        return attempt(prepare(request), decoding, retryPolicy, 1, endpoint, deadline)
+                .whenComplete((response, error) -> {
+                    if (error != null || response.statusCode() >= 500) {
+                        breaker.recordFailure();
+                    } else {
+                        breaker.recordSuccess();
+                    }
+                });
+    }
+
+    /**
+     * The circuit breaker guarding one service, created on first use
+     */
+    public CircuitBreaker circuitBreaker(String service) {
+        return circuitBreakers.computeIfAbsent(service,
+                name -> new CircuitBreaker(name, BREAKER_FAILURE_THRESHOLD, BREAKER_OPEN_DURATION));
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Sets the total time budget, retries included, for an endpoint ("GET /plushie")
+     * or for a whole service ("plushie").
+     */
+    public void setDeadline(String endpointOrService, Duration budget) {
+        deadlines.put(endpointOrService, budget);
+    }
+
+    /**
+     * Caps the request rate and concurrency of a service ("plushie"). Requests over the
+     * limits queue; they are rejected with a {@link RateLimitedException} when the queue
+     * is full or their deadline runs out before they get a turn.
+     */
+    public void setLimits(String service, RequestLimiter.Limits limits) {
+        limiters.put(service, new RequestLimiter(service, limits));
+    }
+
+    /**
+     * The limiter for a service, or null if it isn't limited
+     */
+    public RequestLimiter limiter(String service) {
+        return limiters.get(service);
+    }
+
+    public void setDefaultDeadline(Duration budget) {
+        this.defaultDeadline = budget;
+    }
+
+    public void setHedgingEnabled(boolean hedgingEnabled) {
+        this.hedgingEnabled = hedgingEnabled;
+    }
+
+    /**
+     * Opens a connection to every backend replica ahead of the first real request, so
+     * DNS, TCP and TLS setup happen while the user is still on the welcome screen.
+     * The pings are plain HEADs outside the retry, breaker and metrics pipeline; their
+     * status doesn't matter, only the pooled connection they leave behind.
+     */
+    public CompletableFuture<Void> prewarm() {
+        lastActivity = nanoClock.getAsLong();
+        CompletableFuture<?>[] pings = balancer.getBackends().stream()
+                .map(backend -> HttpRequest.newBuilder(URI.create(backend.getBaseUrl() + "/"))
+                        .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                        .timeout(CONNECT_TIMEOUT)
+                        .build())
+                .map(request -> client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .handle((response, error) -> null))
+                .toArray(CompletableFuture<?>[]::new);
+        return CompletableFuture.allOf(pings);
+    }
+
+    /**
+     * Checks every few seconds and re-pings the backends once the client has been idle
+     * long enough for pooled connections to be at risk, until stopped. Starting again
+     * restarts the schedule.
+     */
+    public void startKeepWarm() {
+        scheduleKeepWarm(keepWarmGeneration.incrementAndGet());
+    }
+
+    public void stopKeepWarm() {
+        keepWarmGeneration.incrementAndGet();
+    }
+
+    private void scheduleKeepWarm(long generation) {
+        CompletableFuture.delayedExecutor(KEEP_WARM_CHECK_PERIOD.toMillis(), TimeUnit.MILLISECONDS,
+                        BackgroundExecutor.executor())
+                .execute(() -> {
+                    if (keepWarmGeneration.get() != generation) {
+                        return;
+                    }
+                    keepWarm();
+                    scheduleKeepWarm(generation);
+                });
+    }
+
+    /**
+     * One keep-warm check: pings if nothing has been sent for {@link #KEEP_WARM_IDLE}
+     */
+    void keepWarm() {
+        if (nanoClock.getAsLong() - lastActivity >= KEEP_WARM_IDLE.toNanos()) {
+            prewarm();
+        }
+    }
+
+    /**
+     * Observed latency of an endpoint, which also drives when GETs are hedged
+     */
+    public LatencyHistogram latency(String endpoint) {
+        return metrics.endpoint(endpoint).getHeaderLatency();
+    }
+
+    private Duration deadlineFor(String endpoint, URI uri) {
+        Duration budget = deadlines.get(endpoint);
+        if (budget == null) {
+            budget = deadlines.get(Endpoints.serviceOf(uri));
+        }
+        return budget != null ? budget : defaultDeadline;
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> attempt(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                           RetryPolicy policy, int attempt, String endpoint,
+                                                           long deadline) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return CompletableFuture.failedFuture(
+                    new HttpTimeoutException("Deadline exceeded for " + endpoint));
+        }
+        HttpRequest timed = HttpRequest.newBuilder(request, (name, value) -> true)
+                .timeout(Duration.ofNanos(remaining))
+                .build();
+
+        return sendHedged(timed, handler, endpoint)
+                .handle((response, error) -> {
+                    if (attempt < policy.getMaxAttempts() && policy.isRetryable(response, error)) {
+                        Duration delay = policy.delayBeforeRetry(attempt, response);
+                        if (System.nanoTime() + delay.toNanos() < deadline) {
+                            discard(response);
+                            Executor delayed = CompletableFuture.delayedExecutor(
+                                    delay.toMillis(), TimeUnit.MILLISECONDS, BackgroundExecutor.executor());
+                            return CompletableFuture.supplyAsync(() -> attempt, delayed)
+                                    .thenCompose(previous -> attempt(request, handler, policy, previous + 1,
+                                            endpoint, deadline));
+                        }
+                    }
+                    return error != null
+                            ? CompletableFuture.<HttpResponse<T>>failedFuture(error)
+                            : CompletableFuture.completedFuture(response);
+                })
+                .thenCompose(next -> next);
+    }
+
+    /**
+     * Sends one attempt. A GET that hasn't answered by its endpoint's observed p95
+     * gets a second, identical request and whichever answers first wins.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> sendHedged(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                              String endpoint) {
+        HttpMetrics.Endpoint stats = metrics.endpoint(endpoint);
+        LatencyHistogram latency = stats.getHeaderLatency();
+        CompletableFuture<HttpResponse<T>> primary = timedSend(request, handler, stats);
+        if (!hedgingEnabled || !request.method().equals("GET") || latency.getCount() < HEDGE_MIN_SAMPLES) {
+            return primary;
+        }
+
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        List<CompletableFuture<HttpResponse<T>>> launched = new CopyOnWriteArrayList<>(List.of(primary));
+        BiConsumer<HttpResponse<T>, Throwable> settle = (response, error) -> {
+            if (error == null) {
+                // Abandon whichever request lost the race
+                launched.stream().filter(attempt -> !attempt.isDone()).forEach(attempt -> attempt.cancel(true));
+                if (!result.complete(response)) {
+                    discard(response);
+                }
+            } else if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        };
+        primary.whenComplete(settle);
+
+        long hedgeAfter = Math.max(1, latency.valueAtPercentile(95));
+        CompletableFuture.delayedExecutor(hedgeAfter, TimeUnit.MICROSECONDS, BackgroundExecutor.executor())
+                .execute(() -> {
+                    if (!result.isDone()) {
+                        outstanding.incrementAndGet();
+                        CompletableFuture<HttpResponse<T>> hedge = timedSend(request, handler, stats);
+                        launched.add(hedge);
+                        hedge.whenComplete(settle);
+                        if (result.isDone()) {
+                            hedge.cancel(true);
+                        }
+                    }
+                });
+        return result;
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> timedSend(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                             HttpMetrics.Endpoint stats) {
+        long start = System.nanoTime();
+        lastActivity = nanoClock.getAsLong();
+        stats.recordAttempt();
+        BackendBalancer.Backend backend = balancer.acquire();
+        URI routed = balancer.route(request.uri(), backend);
+        if (routed != request.uri()) {
+            request = HttpRequest.newBuilder(request, (name, value) -> true).uri(routed).build();
+        }
+
+        CompletableFuture<HttpResponse<T>> exchange = client.sendAsync(request, handler);
+        exchange.whenComplete((response, error) -> {
+            if (error instanceof CancellationException) {
+                balancer.abandon(backend);
+                return;
+            }
+            boolean succeeded = error == null && response.statusCode() < 500;
+            balancer.release(backend, succeeded);
+            if (succeeded) {
+                stats.getHeaderLatency().recordMicros((System.nanoTime() - start) / 1000);
+            }
+        });
+        // Returned as is, so cancelling it aborts the exchange itself
+        return exchange;
+    }
+
+    /**
+     * Adds the headers every request carries: compression negotiation, and an
+     * idempotency key on writes.
+     */
+    private static HttpRequest prepare(HttpRequest request) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, value) -> true);
+        if (request.headers().firstValue("Accept-Encoding").isEmpty()) {
+            builder.header("Accept-Encoding", Compression.ACCEPT_ENCODING);
+        }
+
+        String method = request.method();
+        boolean write = method.equals("POST") || method.equals("PUT") || method.equals("PATCH") || method.equals("DELETE");
+        if (write && request.headers().firstValue(IDEMPOTENCY_KEY).isEmpty()) {
+            builder.header(IDEMPOTENCY_KEY, UUID.randomUUID().toString());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Conditional JSON GET. Sends the validators remembered for this URI and, on a
+     * 304, returns the body parsed last time instead of downloading it again.
+     */
+    public <T> CompletableFuture<T> getJsonAsync(URI uri, TypeReference<T> type, String failureMessage) {
+        return getJsonAsync(uri, type, failureMessage, true);
+    }
+
+    /**
+     * Unconditional JSON GET that bypasses every cache on the way. The fresh
+     * validators are still remembered for later conditional requests.
+     */
+    public <T> CompletableFuture<T> fetchJsonAsync(URI uri, TypeReference<T> type, String failureMessage) {
+        return getJsonAsync(uri, type, failureMessage, false);
+    }
+
+    private <T> CompletableFuture<T> getJsonAsync(URI uri, TypeReference<T> type, String failureMessage,
+                                                  boolean conditional) {
+        // Concurrent callers asking for the same resource share one request and one parsed result
+        String key = (conditional ? "GET " : "GET no-cache ") + uri;
+        return singleFlight.execute(key, () -> sendJsonGet(uri, type, failureMessage, conditional));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> sendJsonGet(URI uri, TypeReference<T> type, String failureMessage,
+                                                 boolean conditional) {
+        ConditionalCache.Entry cached = conditional ? conditionalCache.get(uri) : null;
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(uri)
+                .header("Accept", "application/json")
+                .GET();
+        if (!conditional) {
+            builder.header("Cache-Control", "no-cache");
+        }
+        if (cached != null && cached.etag() != null) {
+            builder.header("If-None-Match", cached.etag());
+        }
+        if (cached != null && cached.lastModified() != null) {
+            builder.header("If-Modified-Since", cached.lastModified());
+        }
+
+        // Parsed straight from the byte stream as it arrives, without an intermediate String
+        return sendAsync(builder.build(), HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    if (response.statusCode() == 304 && cached != null) {
+                        discard(response);
+                        return (T) cached.value();
+                    }
+                    if (response.statusCode() != 200) {
+                        discard(response);
+                        throw new RuntimeException(failureMessage + ": HTTP " + response.statusCode());
+                    }
+                    T value = readJson(response.body(), type);
+                    conditionalCache.store(uri, response.headers(), value);
+                    return value;
+                })
+                .exceptionallyCompose(error -> {
+                    // Degraded offline mode: while the backend is unreachable, serve the last good copy
+                    Throwable cause = unwrap(error);
+                    ConditionalCache.Entry lastGood = conditionalCache.get(uri);
+                    if (lastGood != null && isUnreachable(cause)) {
+                        return CompletableFuture.completedFuture((T) lastGood.value());
+                    }
+                    return CompletableFuture.failedFuture(cause);
+                });
+    }
+
+    private <T> T readJson(InputStream body, TypeReference<T> type) {
+        try (body) {
+            return objectMapper.readValue(body, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Releases a response whose body won't be read. Streamed bodies hold on to
+     * their connection until they are closed.
+     */
+    public static void discard(HttpResponse<?> response) {
+        if (response != null && response.body() instanceof AutoCloseable body) {
+            try {
+                body.close();
+            } catch (Exception ignored) {
+                // Nothing left to release
+            }
+        }
+    }
+
+    /**
+     * Blocks on an async service call and rethrows the original failure
+     * instead of the CompletionException/ExecutionException wrapper.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Whether a failure means the backend couldn't be reached (connection error, timeout,
+     * open circuit) rather than that it answered with something unusable
+     */
+    public static boolean isUnreachable(Throwable cause) {
+        return cause instanceof CircuitOpenException
+                || cause instanceof IOException && !(cause instanceof JsonProcessingException);
+    }
+
+    public static Throwable unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException
+                || cause instanceof UncheckedIOException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
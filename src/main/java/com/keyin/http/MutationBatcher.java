@@ -0,0 +1,265 @@
+package com.keyin.http;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Queues writes and sends them together. When a composite endpoint is configured
+ * the whole batch goes out as one request; otherwise the writes are pipelined in
+ * parallel over the shared connections. Either way the caller gets one combined result.
+ */
+public class MutationBatcher {
+
+    /**
+     * One queued write. The success hook runs once the backend has accepted it.
+     */
+    public record Mutation(String method, URI uri, String body, Runnable onSuccess) {
+        public Mutation(String method, URI uri, String body) {
+            this(method, uri, body, () -> {});
+        }
+
+        public HttpRequest toRequest() {
+            HttpRequest.Builder builder = HttpRequest.newBuilder().uri(uri);
+            if (body != null) {
+                builder.header("Content-Type", "application/json");
+                return builder.method(method, HttpRequest.BodyPublishers.ofString(body)).build();
+            }
+            return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+    }
+
+    public record Outcome(Mutation mutation, int statusCode, Throwable error) {
+        public boolean succeeded() {
+            return error == null && statusCode >= 200 && statusCode < 300;
+        }
+    }
+
+    public record Result(List<Outcome> outcomes) {
+        public boolean allSucceeded() {
+            return outcomes.stream().allMatch(Outcome::succeeded);
+        }
+
+        public Outcome get(int index) {
+            return outcomes.get(index);
+        }
+    }
+
+    /**
+     * A queued write and where its outcome goes, whichever flush ends up sending it.
+     * A write with a prerequisite is only applied if the prerequisite succeeded.
+     */
+    private record Pending(Mutation mutation, CompletableFuture<Outcome> outcome, Pending prerequisite) {
+    }
+
+    public static final int FAILED_DEPENDENCY = 424;
+
+    private final HttpTransport transport;
+    private final ObjectMapper objectMapper;
+    private final List<Pending> queue = new ArrayList<>();
+    private volatile URI compositeEndpoint;
+
+    public MutationBatcher(HttpTransport transport) {
+        this.transport = transport;
+        this.objectMapper = transport.getObjectMapper();
+    }
+
+    /**
+     * Enables composite requests. A backend that answers 404 or 501 there is sent the
+     * writes one by one from then on.
+     */
+    public void setCompositeEndpoint(URI compositeEndpoint) {
+        this.compositeEndpoint = compositeEndpoint;
+    }
+
+    /**
+     * Queues a write for the next flush; completes with its outcome once it has been sent
+     */
+    public synchronized CompletableFuture<Outcome> enqueue(Mutation mutation) {
+        return enqueue(mutation, null).outcome();
+    }
+
+    /**
+     * Queues the given writes and flushes them together with anything already queued.
+     * The result holds the outcomes of these writes only, in the order given.
+     */
+    public CompletableFuture<Result> submit(Mutation... mutations) {
+        return submit(false, mutations);
+    }
+
+    /**
+     * Like {@link #submit}, but each write is applied only if the one before it succeeded.
+     * In a composite request the backend enforces this; otherwise each write waits for the
+     * previous one. A write that was skipped is reported as 424 Failed Dependency.
+     */
+    public CompletableFuture<Result> submitInOrder(Mutation... mutations) {
+        return submit(true, mutations);
+    }
+
+    private CompletableFuture<Result> submit(boolean inOrder, Mutation... mutations) {
+        List<CompletableFuture<Outcome>> outcomes = new ArrayList<>();
+        synchronized (this) {
+            Pending previous = null;
+            for (Mutation mutation : mutations) {
+                previous = enqueue(mutation, inOrder ? previous : null);
+                outcomes.add(previous.outcome());
+            }
+        }
+        flush();
+        return CompletableFuture.allOf(outcomes.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> new Result(outcomes.stream().map(CompletableFuture::join).toList()));
+    }
+
+    private synchronized Pending enqueue(Mutation mutation, Pending prerequisite) {
+        Pending pending = new Pending(mutation, new CompletableFuture<>(), prerequisite);
+        queue.add(pending);
+        return pending;
+    }
+
+    /**
+     * Sends everything queued so far. Outcomes are reported in queue order. A batch that
+     * fails as a whole is reported as a failed outcome for each of its writes.
+     */
+    public CompletableFuture<Result> flush() {
+        List<Pending> batch;
+        synchronized (this) {
+            batch = new ArrayList<>(queue);
+            queue.clear();
+        }
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(new Result(List.of()));
+        }
+
+        URI endpoint = compositeEndpoint;
+        CompletableFuture<Result> result = endpoint != null && batch.size() > 1
+                ? sendComposite(endpoint, batch)
+                : sendPipelined(batch);
+        return result.handle((combined, error) -> {
+            List<Outcome> outcomes = error == null
+                    ? combined.outcomes()
+                    : batch.stream().map(pending -> new Outcome(pending.mutation(), 0, HttpTransport.unwrap(error))).toList();
+            for (int i = 0; i < batch.size(); i++) {
+                Outcome outcome = outcomes.get(i);
+                if (outcome.succeeded()) {
+                    outcome.mutation().onSuccess().run();
+                }
+                batch.get(i).outcome().complete(outcome);
+            }
+            return new Result(outcomes);
+        });
+    }
+
+    private CompletableFuture<Result> sendPipelined(List<Pending> batch) {
+        Map<Pending, CompletableFuture<Outcome>> sent = new IdentityHashMap<>();
+        List<CompletableFuture<Outcome>> outcomes = new ArrayList<>();
+        for (Pending pending : batch) {
+            CompletableFuture<Outcome> before = pending.prerequisite() != null ? sent.get(pending.prerequisite()) : null;
+            CompletableFuture<Outcome> outcome = before == null
+                    ? send(pending.mutation())
+                    : before.thenCompose(previous -> previous.succeeded()
+                            ? send(pending.mutation())
+                            : CompletableFuture.completedFuture(new Outcome(pending.mutation(), FAILED_DEPENDENCY, null)));
+            sent.put(pending, outcome);
+            outcomes.add(outcome);
+        }
+        return CompletableFuture.allOf(outcomes.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> new Result(outcomes.stream().map(CompletableFuture::join).toList()));
+    }
+
+    private CompletableFuture<Outcome> send(Mutation mutation) {
+        return transport.sendAsync(mutation.toRequest(), HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> error != null
+                        ? new Outcome(mutation, 0, HttpTransport.unwrap(error))
+                        : new Outcome(mutation, response.statusCode(), null));
+    }
+
+    private CompletableFuture<Result> sendComposite(URI endpoint, List<Pending> batch) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(toCompositeBody(batch));
+        } catch (JsonProcessingException e) {
+            return sendPipelined(batch);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(endpoint)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        return transport.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenCompose(response -> {
+                    if (response.statusCode() == 404 || response.statusCode() == 501) {
+                        HttpTransport.discard(response);
+                        // The backend has no batch endpoint after all
+                        compositeEndpoint = null;
+                        return sendPipelined(batch);
+                    }
+                    return CompletableFuture.completedFuture(toResult(batch, response));
+                });
+    }
+
+    /**
+     * One operation per write. A write with a prerequisite names its index in dependsOn,
+     * and the backend skips it with 424 unless that operation succeeded.
+     */
+    private ArrayNode toCompositeBody(List<Pending> batch) throws JsonProcessingException {
+        ArrayNode operations = objectMapper.createArrayNode();
+        for (Pending pending : batch) {
+            Mutation mutation = pending.mutation();
+            ObjectNode operation = operations.addObject();
+            operation.put("method", mutation.method());
+            operation.put("path", mutation.uri().getRawPath());
+            if (mutation.body() != null) {
+                operation.set("body", objectMapper.readTree(mutation.body()));
+            }
+            if (pending.prerequisite() != null) {
+                operation.put("dependsOn", indexOf(batch, pending.prerequisite()));
+            }
+        }
+        return operations;
+    }
+
+    private static int indexOf(List<Pending> batch, Pending pending) {
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i) == pending) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Result toResult(List<Pending> batch, HttpResponse<InputStream> response) {
+        List<Outcome> outcomes = new ArrayList<>();
+        JsonNode statuses = null;
+        try (InputStream body = response.body()) {
+            if (response.statusCode() == 200) {
+                statuses = objectMapper.readTree(body);
+            }
+        } catch (IOException e) {
+            statuses = null;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (statuses != null && statuses.has(i)) {
+                outcomes.add(new Outcome(batch.get(i).mutation(), statuses.get(i).path("status").asInt(), null));
+            } else {
+                outcomes.add(new Outcome(batch.get(i).mutation(), response.statusCode(),
+                        new RuntimeException("Batch failed: HTTP " + response.statusCode())));
+            }
+        }
+        return new Result(outcomes);
+    }
+}
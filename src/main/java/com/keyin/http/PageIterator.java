@@ -0,0 +1,101 @@
+package com.keyin.http;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Walks a paged collection one page at a time, fetching the next page only when
+ * the previous one has been consumed. A short page ends the walk.
+ *
+ * Backends that ignore the paging parameters send the whole collection every time,
+ * so records already seen are skipped and a page without anything new also ends
+ * the walk. The filter is applied client-side as well for the same reason.
+ */
+public class PageIterator<T> implements Iterator<T> {
+    private final IntFunction<CompletableFuture<List<T>>> pageLoader;
+    private final int pageSize;
+    private final Function<T, Long> idOf;
+    private final Predicate<T> filter;
+
+    private final Set<Long> seen = new HashSet<>();
+    private Iterator<T> page = List.<T>of().iterator();
+    private int nextPage;
+    private boolean lastPage;
+    private T next;
+
+    public PageIterator(IntFunction<CompletableFuture<List<T>>> pageLoader, int pageSize, Function<T, Long> idOf,
+                        Predicate<T> filter) {
+        this.pageLoader = pageLoader;
+        this.pageSize = pageSize;
+        this.idOf = idOf;
+        this.filter = filter;
+    }
+
+    /**
+     * The records as a lazy, ordered stream
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            if (page.hasNext()) {
+                T candidate = page.next();
+                if (seen.add(idOf.apply(candidate)) && filter.test(candidate)) {
+                    next = candidate;
+                }
+            } else if (lastPage || !fetchPage()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T result = next;
+        next = null;
+        return result;
+    }
+
+    private boolean fetchPage() {
+        List<T> records;
+        try {
+            records = pageLoader.apply(nextPage++).join();
+        } catch (RuntimeException e) {
+            Throwable cause = HttpTransport.unwrap(e);
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof IOException io) {
+                throw new UncheckedIOException(io);
+            }
+            throw new RuntimeException(cause);
+        }
+
+        // A short page is the last one; an oversized one means paging was ignored
+        lastPage = records.size() != pageSize
+                || records.stream().allMatch(record -> seen.contains(idOf.apply(record)));
+        page = records.iterator();
+        return !records.isEmpty();
+    }
+}
@@ -0,0 +1,10 @@
+package com.keyin.http;
+
+/**
+ * Thrown when the client's own limits for a service turn a request away before it is sent
+ */
+public class RateLimitedException extends RuntimeException {
+    public RateLimitedException(String service) {
+        super("Too many requests to '" + service + "', rejected client-side");
+    }
+}
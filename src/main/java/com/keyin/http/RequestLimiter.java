@@ -0,0 +1,176 @@
+package com.keyin.http;
+
+import com.keyin.util.BackgroundExecutor;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side limits for one service: a token bucket capping the request rate and a
+ * cap on how many requests may be in flight at once. A request over either limit
+ * waits in a bounded queue and is sent, in order, when a slot and a token free up.
+ * Once the queue is full further requests are rejected straight away, so a burst
+ * (say everyone hitting restart) doesn't pile onto a backend that is already struggling.
+ */
+public class RequestLimiter {
+
+    /**
+     * A rate of 0 or less means no rate limit; a queue of 0 rejects anything over the limits
+     */
+    public record Limits(double permitsPerSecond, int burst, int maxInFlight, int maxQueued) {
+        public Limits {
+            if (burst < 1 || maxInFlight < 1 || maxQueued < 0) {
+                throw new IllegalArgumentException("Burst and max in flight must be at least 1, queue at least 0");
+            }
+        }
+    }
+
+    private final String name;
+    private final Limits limits;
+    private final LongSupplier nanoClock;
+    private final Deque<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+
+    private double tokens;
+    private long refilledAt;
+    private int inFlight;
+    private boolean refillScheduled;
+
+    public RequestLimiter(String name, Limits limits) {
+        this(name, limits, System::nanoTime);
+    }
+
+    RequestLimiter(String name, Limits limits, LongSupplier nanoClock) {
+        this.name = name;
+        this.limits = limits;
+        this.nanoClock = nanoClock;
+        this.tokens = limits.burst();
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Limits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Completes once the request may be sent, which it must then report back through
+     * {@link #release()}. Fails with a {@link RateLimitedException} if the queue is full
+     * or the request is still queued after maxWait.
+     */
+    public CompletableFuture<Void> acquire(Duration maxWait) {
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        synchronized (this) {
+            refill();
+            if (waiting.isEmpty() && tryTake()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (waiting.size() >= limits.maxQueued() || maxWait.isZero() || maxWait.isNegative()) {
+                return CompletableFuture.failedFuture(new RateLimitedException(name));
+            }
+            waiting.add(permit);
+            scheduleRefill();
+        }
+
+        CompletableFuture.delayedExecutor(maxWait.toNanos(), TimeUnit.NANOSECONDS, BackgroundExecutor.executor())
+                .execute(() -> {
+                    boolean expired;
+                    synchronized (this) {
+                        expired = waiting.remove(permit);
+                    }
+                    if (expired) {
+                        permit.completeExceptionally(new RateLimitedException(name));
+                    }
+                });
+        return permit;
+    }
+
+    /**
+     * A request let through by {@link #acquire(Duration)} has finished
+     */
+    public void release() {
+        synchronized (this) {
+            inFlight--;
+        }
+        drain();
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiting.size();
+    }
+
+    /**
+     * Hands out whatever slots and tokens are free to the requests at the front of the
+     * queue. They are completed outside the lock, since that runs the callers' code.
+     */
+    void drain() {
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+        synchronized (this) {
+            refill();
+            while (!waiting.isEmpty() && tryTake()) {
+                granted.add(waiting.poll());
+            }
+            scheduleRefill();
+        }
+        for (CompletableFuture<Void> permit : granted) {
+            // A caller that gave up while queued leaves its slot to the next one
+            if (!permit.complete(null)) {
+                release();
+            }
+        }
+    }
+
+    private boolean tryTake() {
+        if (inFlight >= limits.maxInFlight() || (isRateLimited() && tokens < 1)) {
+            return false;
+        }
+        if (isRateLimited()) {
+            tokens -= 1;
+        }
+        inFlight++;
+        return true;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        if (isRateLimited()) {
+            tokens = Math.min(limits.burst(), tokens + (now - refilledAt) / 1e9 * limits.permitsPerSecond());
+        }
+        refilledAt = now;
+    }
+
+    /**
+     * Wakes the queue when the next token is due. Not needed while every slot is
+     * taken, as the next release drains the queue anyway.
+     */
+    private void scheduleRefill() {
+        if (refillScheduled || waiting.isEmpty() || inFlight >= limits.maxInFlight() || !isRateLimited()) {
+            return;
+        }
+        long delay = (long) Math.ceil((1 - tokens) / limits.permitsPerSecond() * 1e9);
+        refillScheduled = true;
+        CompletableFuture.delayedExecutor(Math.max(delay, 1), TimeUnit.NANOSECONDS, BackgroundExecutor.executor())
+                .execute(() -> {
+                    synchronized (this) {
+                        refillScheduled = false;
+                    }
+                    drain();
+                });
+    }
+
+    private boolean isRateLimited() {
+        return limits.permitsPerSecond() > 0;
+    }
+}
@@ -0,0 +1,83 @@
+package com.keyin.http;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * When and how often a failed request is tried again.
+ * Delays grow exponentially from the base delay up to the cap, and a random
+ * share (the jitter) is taken off each one so clients don't retry in lockstep.
+ */
+public class RetryPolicy {
+    private final int maxAttempts;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final double jitter;
+    private final Set<Integer> retryableStatuses;
+
+    public RetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay, double jitter,
+                       Set<Integer> retryableStatuses) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("jitter must be between 0 and 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.jitter = jitter;
+        this.retryableStatuses = Set.copyOf(retryableStatuses);
+    }
+
+    /**
+     * Rides out a backend restart during a deploy: 4 attempts over roughly 1.5 seconds
+     */
+    public static RetryPolicy defaults() {
+        return new RetryPolicy(4, Duration.ofMillis(200), Duration.ofSeconds(3), 0.5, Set.of(429, 502, 503, 504));
+    }
+
+    public static RetryPolicy none() {
+        return new RetryPolicy(1, Duration.ZERO, Duration.ZERO, 0, Set.of());
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public boolean isRetryable(HttpResponse<?> response, Throwable error) {
+        if (error != null) {
+            // Connection refused/reset and timeouts surface as IOExceptions
+            return HttpTransport.unwrap(error) instanceof IOException;
+        }
+        return retryableStatuses.contains(response.statusCode());
+    }
+
+    /**
+     * Delay before the given retry (1 = first retry), honouring a Retry-After in seconds
+     */
+    public Duration delayBeforeRetry(int retry, HttpResponse<?> response) {
+        long exponential = baseDelay.toMillis() << Math.min(retry - 1, 20);
+        long capped = Math.min(exponential, maxDelay.toMillis());
+        long delay = capped - (long) (capped * jitter * ThreadLocalRandom.current().nextDouble());
+
+        if (response != null) {
+            long retryAfter = response.headers().firstValue("Retry-After")
+                    .map(RetryPolicy::parseSeconds)
+                    .orElse(0L);
+            delay = Math.max(delay, Math.min(retryAfter * 1000, maxDelay.toMillis()));
+        }
+        return Duration.ofMillis(delay);
+    }
+
+    private static long parseSeconds(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
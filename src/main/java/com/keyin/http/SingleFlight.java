@@ -0,0 +1,47 @@
+package com.keyin.http;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical concurrent calls: while a call for a key is in flight,
+ * later callers share its result instead of starting their own.
+ */
+public class SingleFlight {
+    private final ConcurrentMap<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> execute(String key, Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> shared = new CompletableFuture<>();
+        CompletableFuture<?> existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            // Hand out copies so one caller cancelling doesn't affect the others
+            return ((CompletableFuture<T>) existing).copy();
+        }
+
+        try {
+            call.get().whenComplete((value, error) -> {
+                // Leave the map first, so callers arriving after completion start a new call
+                inFlight.remove(key, shared);
+                if (error != null) {
+                    shared.completeExceptionally(error);
+                } else {
+                    shared.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, shared);
+            shared.completeExceptionally(e);
+        }
+        return shared.copy();
+    }
+
+    /**
+     * Number of distinct calls currently in flight
+     */
+    public int size() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,200 @@
+package com.keyin.load;
+
+import com.keyin.hero.HeroCache;
+import com.keyin.hero.HeroService;
+import com.keyin.http.HttpTransport;
+import com.keyin.http.LatencyHistogram;
+import com.keyin.location.LocationDTO;
+import com.keyin.location.LocationService;
+import com.keyin.plushie.PlushieService;
+import com.keyin.standin.StandInBackend;
+import com.keyin.util.BackgroundExecutor;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless load generator. Each simulated player runs on its own virtual thread and
+ * plays the game through the real services: create a hero, list locations, complete
+ * each one and collect its plushie, read the summary, reset. Players get their own
+ * services and caches but share one HttpClient, like separate sessions in one process.
+ *
+ * Usage: LoadGenerator [baseUrl|standin] [players] [rounds]
+ */
+public class LoadGenerator {
+
+    /**
+     * Latencies are in microseconds
+     */
+    public record EndpointStats(String endpoint, long count, long errors, long p50, long p99, long p999) {
+    }
+
+    public record Report(Duration elapsed, Map<String, EndpointStats> endpoints) {
+        public long getRequests() {
+            return endpoints.values().stream().mapToLong(stats -> stats.count() + stats.errors()).sum();
+        }
+
+        public long getErrors() {
+            return endpoints.values().stream().mapToLong(EndpointStats::errors).sum();
+        }
+
+        public double getThroughput() {
+            return getRequests() / Math.max(elapsed.toNanos() / 1e9, 1e-9);
+        }
+
+        public double getErrorRate() {
+            return getRequests() == 0 ? 0 : (double) getErrors() / getRequests();
+        }
+
+        public String format() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("%d requests in %.1fs: %.1f req/s, %.2f%% errors%n",
+                    getRequests(), elapsed.toMillis() / 1000.0, getThroughput(), getErrorRate() * 100));
+            report.append(String.format("%-28s %8s %7s %10s %10s %10s%n",
+                    "endpoint", "ok", "errors", "p50 ms", "p99 ms", "p999 ms"));
+            for (EndpointStats stats : endpoints.values()) {
+                report.append(String.format("%-28s %8d %7d %10.2f %10.2f %10.2f%n",
+                        stats.endpoint(), stats.count(), stats.errors(),
+                        stats.p50() / 1000.0, stats.p99() / 1000.0, stats.p999() / 1000.0));
+            }
+            return report.toString();
+        }
+    }
+
+    private final String baseUrl;
+    private final int players;
+    private final int rounds;
+    private final HttpClient client;
+    private final ConcurrentMap<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public LoadGenerator(String baseUrl, int players, int rounds) {
+        this.baseUrl = baseUrl;
+        this.players = players;
+        this.rounds = rounds;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(BackgroundExecutor.executor())
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String target = args.length > 0 ? args[0] : "standin";
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+        StandInBackend backend = null;
+        if (target.equals("standin")) {
+            backend = new StandInBackend(0).start();
+            backend.setLatency(Duration.ofMillis(5));
+            backend.setJitter(Duration.ofMillis(20));
+            target = backend.getBaseUrl();
+        }
+
+        try {
+            System.out.println("Running " + players + " players x " + rounds + " rounds against " + target);
+            System.out.print(new LoadGenerator(target, players, rounds).run().format());
+        } finally {
+            if (backend != null) {
+                backend.close();
+            }
+        }
+    }
+
+    /**
+     * Runs every player to completion and reports what was measured
+     */
+    public Report run() {
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int player = 1; player <= players; player++) {
+                int id = player;
+                executor.submit(() -> play(id));
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        Map<String, EndpointStats> endpoints = new TreeMap<>();
+        for (String endpoint : latencies.keySet()) {
+            LatencyHistogram latency = latencies.get(endpoint);
+            endpoints.put(endpoint, new EndpointStats(endpoint, latency.getCount(), errorsFor(endpoint).sum(),
+                    latency.valueAtPercentile(50), latency.valueAtPercentile(99), latency.valueAtPercentile(99.9)));
+        }
+        return new Report(elapsed, endpoints);
+    }
+
+    private void play(int player) {
+        HttpTransport transport = new HttpTransport(baseUrl, client);
+        HeroService heroService = new HeroService(transport);
+        LocationService locationService = new LocationService(transport);
+        PlushieService plushieService = new PlushieService(transport);
+
+        for (int round = 0; round < rounds; round++) {
+            measure("POST /api/heroes", () -> heroService.createHero("Player " + player));
+
+            List<LocationDTO> locations = measure("GET /location", locationService::getAllLocations);
+            if (locations != null) {
+                for (LocationDTO location : locations) {
+                    // Same playable range as the game: the first and last locations have no mini-game
+                    if (location.getId() == 1 || location.getId() == 7) {
+                        continue;
+                    }
+                    measure("PUT /location/{id}", () -> {
+                        if (!locationService.completeLocation(location.getId(), locations)) {
+                            throw new IllegalStateException("Location " + location.getId() + " was not completed");
+                        }
+                        return true;
+                    });
+                    measure("PUT /plushie/{id}/collect", () -> {
+                        plushieService.collectPlushie(location.getId() - 1);
+                        return null;
+                    });
+                }
+            }
+
+            measure("GET /api/heroes/{id}", () -> heroService.getCurrentHero(HeroCache.Freshness.REVALIDATE));
+            measure("GET /location (summary)", locationService::getAllLocations);
+            measure("GET /plushie?collected", () -> plushieService.streamCollectedPlushies().toList());
+
+            measure("POST /plushie/reset", () -> {
+                plushieService.resetAllPlushies();
+                return null;
+            });
+            measure("POST /location/reset", () -> {
+                locationService.resetAllLocations();
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Times one call. A failure is counted against the endpoint and the player carries on.
+     */
+    private <T> T measure(String endpoint, Callable<T> call) {
+        long start = System.nanoTime();
+        try {
+            T result = call.call();
+            latencies.computeIfAbsent(endpoint, key -> new LatencyHistogram())
+                    .recordMicros((System.nanoTime() - start) / 1000);
+            return result;
+        } catch (Exception e) {
+            latencies.computeIfAbsent(endpoint, key -> new LatencyHistogram());
+            errorsFor(endpoint).increment();
+            return null;
+        }
+    }
+
+    private LongAdder errorsFor(String endpoint) {
+        return errors.computeIfAbsent(endpoint, key -> new LongAdder());
+    }
+}
@@ -0,0 +1,118 @@
+package com.keyin.location;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds the last good location list and serves it immediately.
+ * Once the entry is older than the TTL it is revalidated in the background
+ * (stale-while-revalidate) while callers keep getting the old list.
+ * Our own writes invalidate it, so the next read goes to the backend.
+ */
+public class LocationCache {
+    private final Supplier<CompletableFuture<List<LocationDTO>>> loader;
+    private volatile Duration ttl;
+
+    private List<LocationDTO> locations;
+    private long loadedAt;
+    private boolean invalidated = true;
+    private long generation;
+    private CompletableFuture<List<LocationDTO>> inFlight;
+
+    public LocationCache(Supplier<CompletableFuture<List<LocationDTO>>> loader, Duration ttl) {
+        this.loader = loader;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Returns the cached list, loading it first if there is nothing usable yet
+     */
+    public synchronized CompletableFuture<List<LocationDTO>> get() {
+        if (locations == null || invalidated) {
+            return load();
+        }
+        List<LocationDTO> current = locations;
+        if (System.nanoTime() - loadedAt >= ttl.toNanos()) {
+            // Stale: refresh in the background, a failure just keeps the old list
+            load();
+        }
+        return CompletableFuture.completedFuture(current);
+    }
+
+    /**
+     * Drops the cached list so the next read fetches it again
+     */
+    public synchronized void invalidate() {
+        invalidated = true;
+        generation++;
+        inFlight = null;
+    }
+
+    /**
+     * Swaps the cached location with this id for the copy the function returns. Lists
+     * handed out earlier are left as they were. Returns false if it isn't cached.
+     */
+    public synchronized boolean replace(Long id, UnaryOperator<LocationDTO> change) {
+        if (locations == null) {
+            return false;
+        }
+        List<LocationDTO> updated = new ArrayList<>(locations);
+        for (int i = 0; i < updated.size(); i++) {
+            if (id.equals(updated.get(i).getId())) {
+                updated.set(i, change.apply(updated.get(i)));
+                locations = Collections.unmodifiableList(updated);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The cached list without triggering a load, or null if there is none
+     */
+    public synchronized List<LocationDTO> peek() {
+        return locations;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    private synchronized CompletableFuture<List<LocationDTO>> load() {
+        if (inFlight != null) {
+            return inFlight;
+        }
+        long loadGeneration = generation;
+        CompletableFuture<List<LocationDTO>> future = loader.get()
+                .thenApply(loaded -> store(loaded, loadGeneration));
+        inFlight = future;
+        future.whenComplete((loaded, error) -> {
+            synchronized (this) {
+                if (inFlight == future) {
+                    inFlight = null;
+                }
+            }
+        });
+        return future;
+    }
+
+    private synchronized List<LocationDTO> store(List<LocationDTO> loaded, long loadGeneration) {
+        List<LocationDTO> result = Collections.unmodifiableList(loaded);
+        // A write since this load started makes its result outdated
+        if (loadGeneration == generation) {
+            locations = result;
+            loadedAt = System.nanoTime();
+            invalidated = false;
+        }
+        return result;
+    }
+}
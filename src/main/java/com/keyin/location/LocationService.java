@@ -1,41 +1,168 @@
 package com.keyin.location;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.keyin.http.DeltaSync;
+import com.keyin.http.EventStream;
+import com.keyin.http.HttpTransport;
+import com.keyin.http.MutationBatcher;
 import com.keyin.plushie.PlushieDTO;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.List;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.UnaryOperator;
+
 public class LocationService {
-    private final HttpClient client;
-    private final ObjectMapper objectMapper;
+    public static final Duration DEFAULT_CACHE_TTL = Duration.ofSeconds(30);
+    public static final String LOCATION_COMPLETED_EVENT = "location-completed";
+
+    private final HttpTransport transport;
     private final String baseUrl;
+    private final DeltaSync<LocationDTO> sync;
+    private final LocationCache cache;
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
 
-    public LocationService(String baseUrl) {
-        this.client = HttpClient.newHttpClient();
-        this.objectMapper = new ObjectMapper();
-        this.baseUrl = baseUrl + "/location";
+    public LocationService(HttpTransport transport) {
+        this.transport = transport;
+        this.baseUrl = transport.getBaseUrl() + "/location";
+        String collectionUrl = baseUrl;
+        DeltaSync<LocationDTO> locationSync = new DeltaSync<>(transport, URI.create(baseUrl),
+                new TypeReference<List<LocationDTO>>() {}, LocationDTO::getId,
+                () -> fetchAll(transport, collectionUrl), "Failed to get locations");
+        this.sync = locationSync;
+        this.cache = new LocationCache(locationSync::sync, DEFAULT_CACHE_TTL);
     }
 
     public List<LocationDTO> getAllLocations() throws Exception {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl))
-                .GET()
-                .build();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("Failed to get locations: HTTP " + response.statusCode());
+        return HttpTransport.await(getAllLocationsAsync());
+    }
+
+    /**
+     * Serves the cached catalog, revalidating it in the background once it is older than the TTL.
+     */
+    public CompletableFuture<List<LocationDTO>> getAllLocationsAsync() {
+        return cache.get();
+    }
+
+    /**
+     * Always goes to the backend, bypassing the cache.
+     */
+    public CompletableFuture<List<LocationDTO>> fetchAllLocationsAsync() {
+        return fetchAll(transport, baseUrl);
+    }
+
+    /**
+     * Static so the sync can be handed it from the constructor without leaking this
+     */
+    private static CompletableFuture<List<LocationDTO>> fetchAll(HttpTransport transport, String baseUrl) {
+        return transport.getJsonAsync(URI.create(baseUrl), new TypeReference<List<LocationDTO>>() {},
+                "Failed to get locations");
+    }
+
+    /**
+     * Fetches only the locations changed since the last sync and merges them into
+     * the local catalog, falling back to the full list when the backend can't do deltas.
+     */
+    public CompletableFuture<List<LocationDTO>> syncLocationsAsync() {
+        return sync.sync();
+    }
+
+    /**
+     * Applies pushed location-completed events to the cached catalog, so screens
+     * pick up the change without polling.
+     */
+    public void subscribe(EventStream events) {
+        events.on(LOCATION_COMPLETED_EVENT, event -> {
+            try {
+                applyLocationCompleted(transport.getObjectMapper().readTree(event.data()).path("id").asLong());
+            } catch (JsonProcessingException e) {
+                System.err.println("Ignoring malformed " + event.type() + " event: " + event.data());
+            }
+        });
+    }
+
+    /**
+     * The cached catalog without going to the backend, or null if nothing is loaded yet
+     */
+    public List<LocationDTO> getCachedLocations() {
+        return cache.peek();
+    }
+
+    /**
+     * Runs after a pushed change has been applied, on the event stream's thread
+     */
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Swaps in a completed copy of the location; the records already handed out to
+     * screens and other threads are never changed in place
+     */
+    void applyLocationCompleted(Long locationId) {
+        UnaryOperator<LocationDTO> complete = location -> copyOf(location, true);
+        sync.update(locationId, complete);
+        if (!cache.replace(locationId, complete)) {
+            // Not in the catalog we hold, so fetch it on the next read
+            invalidateAfterWrite();
+        }
+        changeListeners.forEach(Runnable::run);
+    }
+
+    /**
+     * The cached catalog as it will look once a reset goes through: copies of every
+     * location, none of them completed. The cached records themselves are left alone
+     * until the backend confirms. Returns null if nothing is loaded.
+     */
+    public List<LocationDTO> previewReset() {
+        List<LocationDTO> cached = cache.peek();
+        if (cached == null) {
+            return null;
         }
-        return objectMapper.readValue(response.body(), new TypeReference<List<LocationDTO>>() {});
+        return cached.stream().map(location -> copyOf(location, false)).toList();
+    }
+
+    private static LocationDTO copyOf(LocationDTO location, boolean completed) {
+        LocationDTO copy = new LocationDTO();
+        copy.setId(location.getId());
+        copy.setName(location.getName());
+        copy.setDescription(location.getDescription());
+        copy.setLocked(location.isLocked());
+        copy.setCompleted(completed);
+        return copy;
+    }
+
+    /**
+     * Drops every local copy of the catalog, including the conditional-GET entry, so
+     * the next read transfers all of it again
+     */
+    public void invalidate() {
+        sync.reset();
+        transport.getConditionalCache().invalidate(URI.create(baseUrl));
+        cache.invalidate();
+    }
+
+    public void setCacheTtl(Duration ttl) {
+        cache.setTtl(ttl);
     }
 
     public int getCompletedLocationsCount() {
         try {
-            List<LocationDTO> locations = getAllLocations();
+            return HttpTransport.await(getCompletedLocationsCountAsync());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    public CompletableFuture<Integer> getCompletedLocationsCountAsync() {
+        return getAllLocationsAsync().thenApply(locations -> {
             int count = 0;
             for (LocationDTO loc : locations) {
                 if (loc.isCompleted()) {
@@ -43,41 +170,64 @@ public class LocationService {
                 }
             }
             return count;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return 0;
-        }
+        });
     }
 
     public void resetAllLocations() throws Exception {
+        HttpTransport.await(resetAllLocationsAsync());
+    }
+
+    public CompletableFuture<Void> resetAllLocationsAsync() {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(baseUrl + "/reset"))
                 .POST(HttpRequest.BodyPublishers.noBody())
                 .build();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("Failed to reset locations: HTTP " + response.statusCode());
-        }
+        return transport.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenAccept(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new RuntimeException("Failed to reset locations: HTTP " + response.statusCode());
+                    }
+                    invalidate();
+                });
     }
 
     public boolean completeLocation(Long locationId, List<LocationDTO> allLocations) {
         try {
-            String jsonInputString = "{\"id\":" + locationId + ",\"completed\":true}";
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(baseUrl + "/" + locationId))
-                    .PUT(HttpRequest.BodyPublishers.ofString(jsonInputString))
-                    .header("Content-Type", "application/json")
-                    .build();
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() == 200) {
-                return true;
-            } else {
-                System.err.println("Complete location failed: HTTP " + response.statusCode());
-                return false;
-            }
+            return HttpTransport.await(completeLocationAsync(locationId));
         } catch (Exception e) {
             e.printStackTrace();
             return false;
         }
     }
-}
\ No newline at end of file
+
+    public CompletableFuture<Boolean> completeLocationAsync(Long locationId) {
+        HttpRequest request = completeLocationMutation(locationId).toRequest();
+        return transport.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(response -> {
+                    if (response.statusCode() == 200) {
+                        invalidateAfterWrite();
+                        return true;
+                    } else {
+                        System.err.println("Complete location failed: HTTP " + response.statusCode());
+                        return false;
+                    }
+                });
+    }
+
+    /**
+     * The completion write as a batchable mutation; the cache is invalidated once it succeeds.
+     */
+    public MutationBatcher.Mutation completeLocationMutation(Long locationId) {
+        String jsonInputString = "{\"id\":" + locationId + ",\"completed\":true}";
+        return new MutationBatcher.Mutation("PUT", URI.create(baseUrl + "/" + locationId), jsonInputString,
+                this::invalidateAfterWrite);
+    }
+
+    /**
+     * After a write the next read must go to the backend, not join a sync that started before it
+     */
+    private void invalidateAfterWrite() {
+        sync.invalidate();
+        cache.invalidate();
+    }
+}
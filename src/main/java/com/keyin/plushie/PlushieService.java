@@ -1,67 +1,162 @@
 package com.keyin.plushie;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.keyin.http.DeltaSync;
+import com.keyin.http.EventStream;
+import com.keyin.http.HttpTransport;
+import com.keyin.http.MutationBatcher;
+import com.keyin.http.PageIterator;
 
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public class PlushieService {
-    private final HttpClient client;
+    public static final String PLUSHIE_COLLECTED_EVENT = "plushie-collected";
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    private final HttpTransport transport;
     private final ObjectMapper objectMapper;
     private final String baseUrl;
+    private final DeltaSync<PlushieDTO> sync;
 
-    public PlushieService(String baseUrl) {
-        this.client = HttpClient.newHttpClient();
-        this.objectMapper = new ObjectMapper();
-        this.baseUrl = baseUrl + "/plushie";
+    public PlushieService(HttpTransport transport) {
+        this.transport = transport;
+        this.objectMapper = transport.getObjectMapper();
+        this.baseUrl = transport.getBaseUrl() + "/plushie";
+        String collectionUrl = baseUrl;
+        this.sync = new DeltaSync<>(transport, URI.create(baseUrl), new TypeReference<List<PlushieDTO>>() {},
+                PlushieDTO::getId, () -> fetchAll(transport, collectionUrl), "Failed to get plushies");
     }
 
     public List<PlushieDTO> getAllPlushies() throws Exception {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl))
-                .GET()
-                .build();
+        return HttpTransport.await(getAllPlushiesAsync());
+    }
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    public CompletableFuture<List<PlushieDTO>> getAllPlushiesAsync() {
+        return fetchAll(transport, baseUrl);
+    }
+
+    /**
+     * Static so the sync can be handed it from the constructor without leaking this
+     */
+    private static CompletableFuture<List<PlushieDTO>> fetchAll(HttpTransport transport, String baseUrl) {
+        return transport.getJsonAsync(URI.create(baseUrl), new TypeReference<List<PlushieDTO>>() {},
+                "Failed to get plushies");
+    }
 
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("Failed to get plushies: HTTP " + response.statusCode());
+    /**
+     * Collected plushies. Served from the synced catalog once it is loaded, since our own
+     * collects and pushed events keep it current; until then they are fetched a page at a
+     * time as the stream is consumed, filtered by the backend with ?collected=true.
+     */
+    public Stream<PlushieDTO> streamCollectedPlushies() {
+        List<PlushieDTO> synced = sync.peek();
+        if (synced != null) {
+            return synced.stream().filter(PlushieDTO::isCollected);
         }
+        return streamPlushies(true, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Lazily pages through the catalog. A null filter streams every plushie.
+     */
+    public Stream<PlushieDTO> streamPlushies(Boolean collected, int pageSize) {
+        String filter = collected != null ? "collected=" + collected + "&" : "";
+        return new PageIterator<PlushieDTO>(
+                page -> transport.getJsonAsync(URI.create(baseUrl + "?" + filter + "page=" + page + "&size=" + pageSize),
+                        new TypeReference<List<PlushieDTO>>() {}, "Failed to get plushies"),
+                pageSize,
+                PlushieDTO::getId,
+                plushie -> collected == null || plushie.isCollected() == collected)
+                .stream();
+    }
 
-        return objectMapper.readValue(response.body(), new TypeReference<List<PlushieDTO>>() {
+    /**
+     * Fetches only the plushies changed since the last sync and merges them into
+     * the local catalog, falling back to the full list when the backend can't do deltas.
+     */
+    public CompletableFuture<List<PlushieDTO>> syncPlushiesAsync() {
+        return sync.sync();
+    }
+
+    /**
+     * Applies pushed plushie-collected events to the synced catalog, so the next
+     * read reflects them before the backend is asked again.
+     */
+    public void subscribe(EventStream events) {
+        events.on(PLUSHIE_COLLECTED_EVENT, event -> {
+            try {
+                markCollected(objectMapper.readTree(event.data()).path("id").asLong());
+            } catch (JsonProcessingException e) {
+                System.err.println("Ignoring malformed " + event.type() + " event: " + event.data());
+            }
         });
     }
 
     public void collectPlushie(Long id) throws Exception {
-        String url = baseUrl + "/" + id + "/collect";
+        HttpTransport.await(collectPlushieAsync(id));
+    }
 
-        String requestBody = objectMapper.writeValueAsString(new PlushieDTO(id, null, null, true, null));
+    public CompletableFuture<Void> collectPlushieAsync(Long id) {
+        HttpRequest request;
+        try {
+            request = collectPlushieMutation(id).toRequest();
+        } catch (UncheckedIOException e) {
+            return CompletableFuture.failedFuture(e.getCause());
+        }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .header("Content-Type", "application/json")
-                .PUT(HttpRequest.BodyPublishers.ofString(requestBody))
-                .build();
+        return transport.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenAccept(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new RuntimeException("Failed to collect plushie: HTTP " + response.statusCode());
+                    }
+                    markCollected(id);
+                });
+    }
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    /**
+     * The collect write as a batchable mutation; the synced catalog is updated once it succeeds
+     */
+    public MutationBatcher.Mutation collectPlushieMutation(Long id) {
+        String url = baseUrl + "/" + id + "/collect";
 
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("Failed to collect plushie: HTTP " + response.statusCode());
+        String requestBody;
+        try {
+            requestBody = objectMapper.writeValueAsString(new PlushieDTO(id, null, null, true, null));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
         }
+
+        return new MutationBatcher.Mutation("PUT", URI.create(url), requestBody, () -> markCollected(id));
+    }
+
+    private void markCollected(Long id) {
+        sync.update(id, plushie -> new PlushieDTO(plushie.getId(), plushie.getName(), plushie.getDescription(),
+                true, plushie.getColor()));
     }
 
     public void resetAllPlushies() throws Exception {
+        HttpTransport.await(resetAllPlushiesAsync());
+    }
+
+    public CompletableFuture<Void> resetAllPlushiesAsync() {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(baseUrl + "/reset"))
                 .POST(HttpRequest.BodyPublishers.noBody())
                 .build();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("Failed to reset plushies: HTTP " + response.statusCode());
-        }
+        return transport.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenAccept(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new RuntimeException("Failed to reset plushies: HTTP " + response.statusCode());
+                    }
+                    sync.reset();
+                });
     }
-}
\ No newline at end of file
+}
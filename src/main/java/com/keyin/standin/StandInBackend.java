@@ -0,0 +1,612 @@
+package com.keyin.standin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.keyin.hero.HeroDTO;
+import com.keyin.location.LocationDTO;
+import com.keyin.plushie.PlushieDTO;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A local stand-in for the game backend, built on the JDK's HTTP server. It serves
+ * /api/heroes, /location, /plushie and /events the way the services expect, including
+ * ETags, delta sync, paging, gzip, idempotency keys and composite writes to /batch, and
+ * can inject latency, jitter, errors and larger payloads. Used by the integration tests and load runs.
+ */
+public class StandInBackend implements AutoCloseable {
+    private static final String[] LOCATION_NAMES = {
+            "Starting Village", "Mystic Forest", "Crystal Cave", "Ancient Temple",
+            "Dragon's Peak", "Shadow Valley", "Final Castle"
+    };
+    private static final String[] PLUSHIE_NAMES = {
+            "Forest Owl", "Crystal Bat", "Temple Cat", "Baby Dragon", "Shadow Fox"
+    };
+    private static final int GZIP_THRESHOLD = 1024;
+    // Enough for any retry window; the oldest keys are dropped first
+    private static final int MAX_IDEMPOTENT_REPLIES = 10_000;
+
+    /**
+     * What a handler answers with; written out after compression and idempotency handling
+     */
+    private record Reply(int status, byte[] body, Map<String, String> headers) {
+        static Reply empty(int status) {
+            return new Reply(status, null, Map.of());
+        }
+    }
+
+    /**
+     * What a handler is asked; either read off an exchange or one operation of a batch
+     */
+    private record Request(String method, URI uri, Headers headers, byte[] body) {
+        static Request of(HttpExchange exchange) throws IOException {
+            return new Request(exchange.getRequestMethod(), exchange.getRequestURI(),
+                    exchange.getRequestHeaders(), exchange.getRequestBody().readAllBytes());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Reply handle(Request request) throws IOException;
+    }
+
+    private final HttpServer server;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong requestCount = new AtomicLong();
+    // Writes events one at a time, in order, off the request threads and outside the state lock
+    private final ExecutorService eventWriter =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("stand-in-events").factory());
+
+    private volatile Duration latency = Duration.ZERO;
+    private volatile Duration jitter = Duration.ZERO;
+    private volatile double errorRate;
+    private int catalogSize = LOCATION_NAMES.length;
+    private int payloadPadding;
+
+    // Backend state, guarded by this
+    private final Map<Long, HeroDTO> heroes = new LinkedHashMap<>();
+    private final Map<Long, LocationDTO> locations = new LinkedHashMap<>();
+    private final Map<Long, PlushieDTO> plushies = new LinkedHashMap<>();
+    private final Map<Long, Long> locationVersions = new HashMap<>();
+    private final Map<Long, Long> plushieVersions = new HashMap<>();
+    private long version;
+    private long nextHeroId = 1;
+    private final List<OutputStream> eventSubscribers = new ArrayList<>();
+    private final Map<String, Reply> idempotentReplies = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Reply> eldest) {
+            return size() > MAX_IDEMPOTENT_REPLIES;
+        }
+    };
+
+    /**
+     * Binds to localhost on the given port; 0 picks a free one
+     */
+    public StandInBackend(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/api/heroes", exchange -> serve(exchange, this::heroes));
+        server.createContext("/location", exchange -> serve(exchange, this::locations));
+        server.createContext("/plushie", exchange -> serve(exchange, this::plushies));
+        server.createContext("/batch", exchange -> serve(exchange, this::batch));
+        server.createContext("/events", this::events);
+        seed();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        StandInBackend backend = new StandInBackend(port).start();
+        System.out.println("Stand-in backend listening on " + backend.getBaseUrl());
+    }
+
+    public StandInBackend start() {
+        server.start();
+        return this;
+    }
+
+    @Override
+    public void close() {
+        List<OutputStream> subscribers;
+        synchronized (this) {
+            subscribers = new ArrayList<>(eventSubscribers);
+            eventSubscribers.clear();
+        }
+        eventWriter.shutdownNow();
+        subscribers.forEach(this::closeQuietly);
+        server.stop(0);
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Adds up to this much random delay on top of the fixed latency
+     */
+    public void setJitter(Duration jitter) {
+        this.jitter = jitter;
+    }
+
+    /**
+     * Fraction of requests, between 0 and 1, answered with 503
+     */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Number of locations and plushies in the catalog. Resets the game state.
+     */
+    public synchronized void setCatalogSize(int catalogSize) {
+        this.catalogSize = catalogSize;
+        seed();
+    }
+
+    /**
+     * Pads every description to this many characters to make payloads heavier. Resets the game state.
+     */
+    public synchronized void setPayloadPadding(int payloadPadding) {
+        this.payloadPadding = payloadPadding;
+        seed();
+    }
+
+    // -----------------------------------------------------------------------------------
+    // REQUEST PIPELINE
+    // -----------------------------------------------------------------------------------
+
+    private void serve(HttpExchange exchange, Handler handler) throws IOException {
+        requestCount.incrementAndGet();
+        try (exchange) {
+            injectLatency();
+            Request request = Request.of(exchange);
+            Reply reply;
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                reply = Reply.empty(503);
+            } else {
+                String key = request.headers().getFirst("Idempotency-Key");
+                if (key == null) {
+                    reply = handle(request, handler);
+                } else {
+                    // Same lock as the handlers, so a retry racing the original still sees its reply
+                    synchronized (this) {
+                        Reply previous = idempotentReplies.get(key);
+                        if (previous != null) {
+                            // A retried write: answer as before without applying it again
+                            reply = previous;
+                        } else {
+                            reply = handle(request, handler);
+                            if (reply.status() < 500) {
+                                idempotentReplies.put(key, reply);
+                            }
+                        }
+                    }
+                }
+            }
+            write(exchange, reply);
+        }
+    }
+
+    private Reply handle(Request request, Handler handler) throws IOException {
+        try {
+            return handler.handle(request);
+        } catch (RuntimeException e) {
+            System.err.println("Stand-in backend failed on " + request.uri() + ": " + e.getMessage());
+            return Reply.empty(500);
+        }
+    }
+
+    private void injectLatency() {
+        long delay = latency.toMillis();
+        if (!jitter.isZero()) {
+            delay += ThreadLocalRandom.current().nextLong(jitter.toMillis() + 1);
+        }
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void write(HttpExchange exchange, Reply reply) throws IOException {
+        reply.headers().forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+        byte[] body = reply.body();
+        if (body == null || reply.status() == 304) {
+            exchange.sendResponseHeaders(reply.status(), -1);
+            return;
+        }
+
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip") && body.length >= GZIP_THRESHOLD) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(body);
+            }
+            body = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(reply.status(), body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private Reply json(Object value) throws IOException {
+        return new Reply(200, objectMapper.writeValueAsBytes(value), Map.of());
+    }
+
+    // -----------------------------------------------------------------------------------
+    // HEROES
+    // -----------------------------------------------------------------------------------
+
+    private synchronized Reply heroes(Request request) throws IOException {
+        String method = request.method();
+        List<String> path = segments(request.uri());
+        // path: [api, heroes] or [api, heroes, {id}]
+        if (path.size() == 2 && method.equals("POST")) {
+            HeroDTO hero = new HeroDTO();
+            hero.setId(nextHeroId++);
+            hero.setName(readBody(request).path("name").asText());
+            hero.setCreatedAt(Instant.now().toString());
+            heroes.put(hero.getId(), hero);
+            return json(hero);
+        }
+        if (path.size() != 3) {
+            return Reply.empty(404);
+        }
+
+        HeroDTO hero = heroes.get(parseId(path.get(2)));
+        if (hero == null) {
+            return Reply.empty(404);
+        }
+        return switch (method) {
+            case "GET" -> json(hero);
+            case "PUT" -> {
+                hero.setName(readBody(request).path("name").asText(hero.getName()));
+                yield json(hero);
+            }
+            default -> Reply.empty(405);
+        };
+    }
+
+    // -----------------------------------------------------------------------------------
+    // LOCATIONS
+    // -----------------------------------------------------------------------------------
+
+    private synchronized Reply locations(Request request) throws IOException {
+        String method = request.method();
+        List<String> path = segments(request.uri());
+        if (path.size() == 1 && method.equals("GET")) {
+            return catalog(request, new ArrayList<>(locations.values()), locationVersions, LocationDTO::getId);
+        }
+        if (path.size() == 2 && path.get(1).equals("reset") && method.equals("POST")) {
+            for (LocationDTO location : locations.values()) {
+                if (location.isCompleted()) {
+                    location.setCompleted(false);
+                    locationVersions.put(location.getId(), ++version);
+                }
+            }
+            return Reply.empty(200);
+        }
+        if (path.size() == 2 && method.equals("PUT")) {
+            LocationDTO location = locations.get(parseId(path.get(1)));
+            if (location == null) {
+                return Reply.empty(404);
+            }
+            location.setCompleted(readBody(request).path("completed").asBoolean(true));
+            locationVersions.put(location.getId(), ++version);
+            publish("location-completed", location.getId());
+            return json(location);
+        }
+        return Reply.empty(404);
+    }
+
+    // -----------------------------------------------------------------------------------
+    // PLUSHIES
+    // -----------------------------------------------------------------------------------
+
+    private synchronized Reply plushies(Request request) throws IOException {
+        String method = request.method();
+        List<String> path = segments(request.uri());
+        if (path.size() == 1 && method.equals("GET")) {
+            Map<String, String> query = query(request.uri());
+            List<PlushieDTO> matching = new ArrayList<>(plushies.values());
+            if (query.containsKey("collected")) {
+                boolean collected = Boolean.parseBoolean(query.get("collected"));
+                matching.removeIf(plushie -> plushie.isCollected() != collected);
+            }
+            if (query.containsKey("page") && !query.containsKey("since")) {
+                int size = Integer.parseInt(query.getOrDefault("size", "20"));
+                int from = Math.min(matching.size(), Integer.parseInt(query.get("page")) * size);
+                matching = matching.subList(from, Math.min(matching.size(), from + size));
+            }
+            return catalog(request, matching, plushieVersions, PlushieDTO::getId);
+        }
+        if (path.size() == 2 && path.get(1).equals("reset") && method.equals("POST")) {
+            for (PlushieDTO plushie : plushies.values()) {
+                if (plushie.isCollected()) {
+                    plushie.setCollected(false);
+                    plushieVersions.put(plushie.getId(), ++version);
+                }
+            }
+            return Reply.empty(200);
+        }
+        if (path.size() == 3 && path.get(2).equals("collect") && method.equals("PUT")) {
+            PlushieDTO plushie = plushies.get(parseId(path.get(1)));
+            if (plushie == null) {
+                return Reply.empty(404);
+            }
+            plushie.setCollected(true);
+            plushieVersions.put(plushie.getId(), ++version);
+            publish("plushie-collected", plushie.getId());
+            return json(plushie);
+        }
+        return Reply.empty(404);
+    }
+
+    /**
+     * A collection GET with the caching and sync headers the client understands:
+     * ETag/If-None-Match, X-Sync-Version, and ?since= deltas marked X-Sync-Delta.
+     */
+    private <T> Reply catalog(Request request, List<T> records, Map<Long, Long> versions,
+                              Function<T, Long> idOf) throws IOException {
+        Map<String, String> query = query(request.uri());
+        Map<String, String> headers = new HashMap<>();
+        headers.put("X-Sync-Version", Long.toString(version));
+
+        String since = query.get("since");
+        if (since != null) {
+            long cursor = Long.parseLong(since);
+            if (cursor > version) {
+                // A cursor from before a restart
+                return Reply.empty(410);
+            }
+            List<T> changed = records.stream()
+                    .filter(record -> versions.getOrDefault(idOf.apply(record), 0L) > cursor)
+                    .toList();
+            headers.put("X-Sync-Delta", "true");
+            return new Reply(200, objectMapper.writeValueAsBytes(changed), headers);
+        }
+
+        String etag = "\"v" + version + "\"";
+        headers.put("ETag", etag);
+        if (etag.equals(request.headers().getFirst("If-None-Match"))) {
+            return new Reply(304, null, headers);
+        }
+        return new Reply(200, objectMapper.writeValueAsBytes(records), headers);
+    }
+
+    // -----------------------------------------------------------------------------------
+    // BATCH
+    // -----------------------------------------------------------------------------------
+
+    /**
+     * Applies a JSON array of {method, path, body, dependsOn} operations in order and
+     * answers with a status for each. An operation whose dependsOn names one that did not
+     * succeed is skipped with 424, so dependent writes never land on their own.
+     */
+    private synchronized Reply batch(Request request) throws IOException {
+        if (!request.method().equals("POST")) {
+            return Reply.empty(405);
+        }
+        JsonNode operations = readBody(request);
+        if (!operations.isArray()) {
+            return Reply.empty(400);
+        }
+
+        List<Integer> statuses = new ArrayList<>();
+        ArrayNode results = objectMapper.createArrayNode();
+        for (JsonNode operation : operations) {
+            int status;
+            JsonNode dependsOn = operation.get("dependsOn");
+            if (dependsOn != null && !succeeded(statuses, dependsOn.asInt(-1))) {
+                status = 424;
+            } else {
+                URI uri = URI.create(operation.path("path").asText());
+                JsonNode body = operation.get("body");
+                Request part = new Request(operation.path("method").asText(), uri, new Headers(),
+                        body == null ? new byte[0] : objectMapper.writeValueAsBytes(body));
+                status = handle(part, route(uri)).status();
+            }
+            statuses.add(status);
+            results.addObject().put("status", status);
+        }
+        return json(results);
+    }
+
+    private Handler route(URI uri) {
+        List<String> path = segments(uri);
+        if (path.size() >= 2 && path.get(0).equals("api") && path.get(1).equals("heroes")) {
+            return this::heroes;
+        }
+        if (!path.isEmpty() && path.get(0).equals("location")) {
+            return this::locations;
+        }
+        if (!path.isEmpty() && path.get(0).equals("plushie")) {
+            return this::plushies;
+        }
+        return request -> Reply.empty(404);
+    }
+
+    private static boolean succeeded(List<Integer> statuses, int index) {
+        return index >= 0 && index < statuses.size() && statuses.get(index) >= 200 && statuses.get(index) < 300;
+    }
+
+    // -----------------------------------------------------------------------------------
+    // EVENTS
+    // -----------------------------------------------------------------------------------
+
+    private void events(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        injectLatency();
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+
+        StringBuilder replay = new StringBuilder(": connected\n\n");
+        String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        synchronized (this) {
+            if (lastEventId != null) {
+                // Replay what the client missed while it was disconnected
+                long cursor = Long.parseLong(lastEventId);
+                locations.values().stream()
+                        .filter(location -> location.isCompleted() && locationVersions.getOrDefault(location.getId(), 0L) > cursor)
+                        .forEach(location -> replay.append(event("location-completed", location.getId())));
+                plushies.values().stream()
+                        .filter(plushie -> plushie.isCollected() && plushieVersions.getOrDefault(plushie.getId(), 0L) > cursor)
+                        .forEach(plushie -> replay.append(event("plushie-collected", plushie.getId())));
+            }
+            eventSubscribers.add(out);
+            // Queued under the lock, so it goes out ahead of any event published after it
+            send(List.of(out), replay.toString());
+        }
+        // The exchange stays open; publish() writes to it until the client goes away
+    }
+
+    /**
+     * Called by the handlers with the state lock held. The subscribers are copied here and
+     * written to on the event writer, so a slow client never stalls a request.
+     */
+    private void publish(String type, Long id) {
+        send(List.copyOf(eventSubscribers), event(type, id));
+    }
+
+    private void send(List<OutputStream> subscribers, String events) {
+        byte[] payload = events.getBytes(StandardCharsets.UTF_8);
+        eventWriter.execute(() -> {
+            for (OutputStream subscriber : subscribers) {
+                try {
+                    subscriber.write(payload);
+                    subscriber.flush();
+                } catch (IOException e) {
+                    synchronized (this) {
+                        eventSubscribers.remove(subscriber);
+                    }
+                    closeQuietly(subscriber);
+                }
+            }
+        });
+    }
+
+    private String event(String type, Long id) {
+        return "id: " + version + "\nevent: " + type + "\ndata: {\"id\":" + id + "}\n\n";
+    }
+
+    // -----------------------------------------------------------------------------------
+    // HELPERS
+    // -----------------------------------------------------------------------------------
+
+    private synchronized void seed() {
+        heroes.clear();
+        locations.clear();
+        plushies.clear();
+        locationVersions.clear();
+        plushieVersions.clear();
+        version = 1;
+        nextHeroId = 1;
+
+        HeroDTO hero = new HeroDTO();
+        hero.setId(nextHeroId++);
+        hero.setName("Hero");
+        hero.setCreatedAt(Instant.now().toString());
+        heroes.put(hero.getId(), hero);
+
+        for (long id = 1; id <= catalogSize; id++) {
+            LocationDTO location = new LocationDTO();
+            location.setId(id);
+            location.setName(id <= LOCATION_NAMES.length ? LOCATION_NAMES[(int) id - 1] : "Location " + id);
+            location.setDescription(describe("A place to explore"));
+            locations.put(id, location);
+
+            String plushieName = id <= PLUSHIE_NAMES.length ? PLUSHIE_NAMES[(int) id - 1] : "Plushie " + id;
+            plushies.put(id, new PlushieDTO(id, plushieName, describe("A magical plushie"), false, "Gold"));
+        }
+    }
+
+    private String describe(String description) {
+        if (description.length() >= payloadPadding) {
+            return description;
+        }
+        return description + " " + ".".repeat(payloadPadding - description.length() - 1);
+    }
+
+    private JsonNode readBody(Request request) throws IOException {
+        byte[] body = request.body();
+        return body.length == 0 ? objectMapper.createObjectNode() : objectMapper.readTree(body);
+    }
+
+    private static List<String> segments(URI uri) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : uri.getPath().split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> params = new HashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw == null) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static Long parseId(String segment) {
+        try {
+            return Long.parseLong(segment);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    private void closeQuietly(OutputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException ignored) {
+            // Already gone
+        }
+    }
+}
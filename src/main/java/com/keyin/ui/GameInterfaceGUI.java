@@ -13,8 +13,12 @@ import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.Clip;
 import javax.sound.sampled.FloatControl;
 
+import com.keyin.GameReset;
+import com.keyin.hero.HeroCache;
 import com.keyin.hero.HeroDTO;
 import com.keyin.hero.HeroService;
+import com.keyin.http.HttpTransport;
+import com.keyin.http.MutationBatcher;
 import com.keyin.location.LocationDTO;
 import com.keyin.location.LocationService;
 import com.keyin.minigame.AbstractMiniGame;
@@ -23,6 +27,7 @@ import com.keyin.minigame.MiniGameService;
 import java.util.concurrent.CompletableFuture;
 import com.keyin.plushie.PlushieDTO;
 import com.keyin.plushie.PlushieService;
+import com.keyin.util.BackgroundExecutor;
 
 import java.awt.BorderLayout;
 import java.awt.Color;
@@ -53,6 +58,9 @@ public class GameInterfaceGUI extends JFrame {
     private final LocationService locationService;
     private final MiniGameService miniGameService;
     private final PlushieService plushieService;
+    private final MutationBatcher mutationBatcher;
+    private final HttpTransport transport;
+    private final GameReset gameReset;
     private HeroDTO currentHero;
 
     private CardLayout cardLayout;
@@ -75,12 +83,20 @@ public class GameInterfaceGUI extends JFrame {
     // -----------------------------------------------------------------------------------
     // CONSTRUCTOR
     // -----------------------------------------------------------------------------------
-    public GameInterfaceGUI(HeroService heroService, LocationService locationService, PlushieService plushieService) {
+    public GameInterfaceGUI(HeroService heroService, LocationService locationService, PlushieService plushieService,
+                            MutationBatcher mutationBatcher, HttpTransport transport) {
         this.heroService = heroService;
         this.locationService = locationService;
         this.plushieService = plushieService;
+        this.mutationBatcher = mutationBatcher;
+        this.transport = transport;
+        this.gameReset = new GameReset(locationService, plushieService);
         this.miniGameService = new MiniGameService();
         initializeUI();
+
+        // The welcome card is up: connect now so hero creation doesn't pay for the handshake
+        transport.prewarm();
+        transport.startKeepWarm();
     }
 
     // -----------------------------------------------------------------------------------
@@ -164,6 +180,7 @@ public class GameInterfaceGUI extends JFrame {
                 if (!isMuted) {
                     playMusic();
                 }
+                transport.prewarm();
             }
         });
 
@@ -303,19 +320,11 @@ public class GameInterfaceGUI extends JFrame {
         panel.addComponentListener(new ComponentAdapter() {
             @Override
             public void componentShown(ComponentEvent e) {
-                SwingWorker<Void, Void> worker = new SwingWorker<>() {
-                    @Override
-                    protected Void doInBackground() {
-                        int completedCount = locationService.getCompletedLocationsCount();
-                        String progressText = getProgressionText(completedCount);
-                        SwingUtilities.invokeLater(() -> {
-                            dialogBox.showText(progressText);
+                BackgroundExecutor.supply(locationService::getCompletedLocationsCount)
+                        .thenAcceptAsync(completedCount -> {
+                            dialogBox.showText(getProgressionText(completedCount));
                             dialogState[0] = 0;
-                        });
-                        return null;
-                    }
-                };
-                worker.execute();
+                        }, BackgroundExecutor.edt());
             }
         });
 
@@ -369,7 +378,6 @@ public class GameInterfaceGUI extends JFrame {
         JButton viewPlushiesButton = new JButton("View Plushies");
         styleButton(viewPlushiesButton, new Color(0, 0, 0), new Color(240, 240, 240), 16, 150, 40);
         viewPlushiesButton.addActionListener(e -> {
-            PlushieService plushieService = new PlushieService("http://localhost:8080");
             PlushieDialog dialog = new PlushieDialog(this, plushieService);
             dialog.setVisible(true);
         });
@@ -403,9 +411,24 @@ public class GameInterfaceGUI extends JFrame {
             }
         });
 
+        // Redraw from the cache when the backend pushes a change while the map is on screen
+        locationService.addChangeListener(() -> SwingUtilities.invokeLater(() -> {
+            if (locationSelectionPanel.isShowing() && locationService.getCachedLocations() != null) {
+                allLocations = locationService.getCachedLocations();
+                populateLocationButtons();
+            }
+        }));
+
         mainPanel.add(locationSelectionPanel, "locationSelection");
     }
 
+    /**
+     * Completed in this session, or reported completed by the backend (e.g. a pushed event)
+     */
+    private boolean isCompleted(LocationDTO location) {
+        return completedLocations.contains(location.getId()) || location.isCompleted();
+    }
+
     private void populateLocationButtons() {
         locationButtonPanel.removeAll();
 
@@ -433,7 +456,7 @@ public class GameInterfaceGUI extends JFrame {
             });
 
             locButton.addActionListener(e -> {
-                if (completedLocations.contains(location.getId())) {
+                if (isCompleted(location)) {
                     JOptionPane.showMessageDialog(this,
                             "This location has already been completed!",
                             "Warning",
@@ -443,7 +466,7 @@ public class GameInterfaceGUI extends JFrame {
                 }
             });
 
-            if (completedLocations.contains(location.getId())) {
+            if (isCompleted(location)) {
                 locButton.setEnabled(false);
                 locButton.setText(location.getName() + " (Completed)");
                 locButton.setBackground(new Color(60,60,60));
@@ -484,26 +507,43 @@ public class GameInterfaceGUI extends JFrame {
 
             miniGame.setOnCompleteCallback(() -> {
                 System.out.println("GameInterfaceGUI: Minigame completed for location " + locationId);
-                boolean success = locationService.completeLocation(locationId, allLocations);
-                if (success) {
-                    completedLocations.add(locationId);
-                    try {
-                        plushieService.collectPlushie((locationId - 1));
-                    } catch (Exception e) {
-                        throw new RuntimeException(e);
-                    }
-                    plushiesCollected++;
-                    if (plushiesCollected >= 5) {
-                        cardLayout.show(mainPanel, "finalBoss");
-                    } else {
-                        cardLayout.show(mainPanel, "startPanel");
-                    }
-                } else {
-                    JOptionPane.showMessageDialog(this,
-                            "Failed to update location status",
-                            "Error",
-                            JOptionPane.ERROR_MESSAGE);
-                }
+                // One request; the backend only collects the plushie if the location was completed
+                mutationBatcher.submitInOrder(
+                                locationService.completeLocationMutation(locationId),
+                                plushieService.collectPlushieMutation(locationId - 1))
+                        .whenCompleteAsync((result, error) -> {
+                            MutationBatcher.Outcome locationOutcome = error == null ? result.get(0) : null;
+                            if (locationOutcome == null || !locationOutcome.succeeded()) {
+                                System.err.println("Complete location failed: " + (error != null
+                                        ? HttpTransport.unwrap(error).getMessage()
+                                        : describe(locationOutcome)));
+                                JOptionPane.showMessageDialog(this,
+                                        "Failed to update location status",
+                                        "Error",
+                                        JOptionPane.ERROR_MESSAGE);
+                                cardLayout.show(mainPanel, "locationSelection");
+                                return;
+                            }
+
+                            completedLocations.add(locationId);
+                            MutationBatcher.Outcome plushieOutcome = result.get(1);
+                            if (!plushieOutcome.succeeded()) {
+                                System.err.println("Collect plushie failed: " + describe(plushieOutcome));
+                                JOptionPane.showMessageDialog(this,
+                                        "Failed to collect the plushie",
+                                        "Error",
+                                        JOptionPane.ERROR_MESSAGE);
+                                cardLayout.show(mainPanel, "locationSelection");
+                                return;
+                            }
+
+                            plushiesCollected++;
+                            if (plushiesCollected >= 5) {
+                                cardLayout.show(mainPanel, "finalBoss");
+                            } else {
+                                cardLayout.show(mainPanel, "startPanel");
+                            }
+                        }, BackgroundExecutor.edt());
             });
 
             miniGame.setOnFailCallback(() -> {
@@ -525,6 +565,10 @@ public class GameInterfaceGUI extends JFrame {
         }
     }
 
+    private static String describe(MutationBatcher.Outcome outcome) {
+        return outcome.error() != null ? outcome.error().getMessage() : "HTTP " + outcome.statusCode();
+    }
+
     // -----------------------------------------------------------------------------------
     // MINI-GAME PANEL (FALLBACK)
     // -----------------------------------------------------------------------------------
@@ -779,7 +823,7 @@ public class GameInterfaceGUI extends JFrame {
                 System.out.println("Congratulations panel shown - fetching latest hero data");
 
                 try {
-                    currentHero = heroService.getCurrentHero();
+                    currentHero = heroService.getCurrentHero(HeroCache.Freshness.REVALIDATE);
 
                     System.out.println("HERO DEBUG INFO:");
                     System.out.println("- ID: " + (currentHero != null ? currentHero.getId() : "null"));
@@ -831,118 +875,131 @@ public class GameInterfaceGUI extends JFrame {
     }
 
     /**
-     * Fetches data from all the main entities and displays it in the text area
-     * using only the existing services and data
+     * Fetches data from all the main entities and displays it in the text area.
+     * Hero, locations and plushies are fetched in parallel and each section is
+     * rendered as soon as its data arrives.
      * @param textArea The JTextArea to display the data in
      */
     private void fetchAndDisplayGameSummary(JTextArea textArea) {
-        textArea.setText("Loading game summary...");
+        String[] sections = {
+                "== HERO INFORMATION ==\nLoading...\n\n",
+                "== LOCATIONS VISITED ==\nLoading...\n\n",
+                "== PLUSHIES COLLECTED ==\nLoading...\n\n",
+                "== COMPLETED MINIGAMES ==\nLoading...\n\n"
+        };
+        renderGameSummary(textArea, sections);
+
+        CompletableFuture<HeroDTO> hero = heroService.getCurrentHeroAsync();
+        CompletableFuture<List<LocationDTO>> locations = locationService.getAllLocationsAsync();
+        CompletableFuture<List<PlushieDTO>> plushies = collectedPlushies != null && !collectedPlushies.isEmpty()
+                ? CompletableFuture.completedFuture(collectedPlushies)
+                : BackgroundExecutor.supply(() -> plushieService.streamCollectedPlushies().toList());
+
+        updateSummarySection(textArea, sections, 0, hero.handle(this::buildHeroSection));
+        updateSummarySection(textArea, sections, 1, locations.handle(this::buildLocationsSection));
+        updateSummarySection(textArea, sections, 2, plushies.handle(this::buildPlushiesSection));
+        // completedLocations belongs to the EDT, so this section is built there
+        updateSummarySection(textArea, sections, 3,
+                locations.handleAsync(this::buildCompletedMinigamesSection, BackgroundExecutor.edt()));
+    }
 
-        // Create a new thread to not block the UI
-        new Thread(() -> {
-            StringBuilder summary = new StringBuilder();
-            summary.append("=== GAME ADVENTURE SUMMARY ===\n\n");
+    private void updateSummarySection(JTextArea textArea, String[] sections, int index, CompletableFuture<String> section) {
+        section.thenAcceptAsync(text -> {
+            sections[index] = text;
+            renderGameSummary(textArea, sections);
+        }, BackgroundExecutor.edt());
+    }
 
-            // HERO INFO
-            try {
-                summary.append("== HERO INFORMATION ==\n");
-                if (currentHero != null) {
-                    summary.append("ID: ").append(currentHero.getId()).append("\n");
-                    summary.append("Name: ").append(currentHero.getName()).append("\n");
-                    summary.append("Created At: ").append(currentHero.getCreatedAt()).append("\n");
-                    summary.append("Current Location ID: ").append(currentHero.getCurrentLocationID()).append("\n\n");
-                } else {
-                    summary.append("No hero information available.\n\n");
-                }
-            } catch (Exception ex) {
-                summary.append("Error accessing hero info: ").append(ex.getMessage()).append("\n\n");
-            }
+    private void renderGameSummary(JTextArea textArea, String[] sections) {
+        StringBuilder summary = new StringBuilder();
+        summary.append("=== GAME ADVENTURE SUMMARY ===\n\n");
+        for (String section : sections) {
+            summary.append(section);
+        }
+        summary.append("=== END OF GAME SUMMARY ===");
+        textArea.setText(summary.toString());
+        textArea.setCaretPosition(0);
+    }
 
-            // LOCATIONS INFO
-            try {
-                summary.append("== LOCATIONS VISITED ==\n");
-                int completedCount = locationService.getCompletedLocationsCount();
-
-                for (LocationDTO loc : allLocations) {
-                    summary.append("- ").append(loc.getName()).append(" (ID: ").append(loc.getId()).append(")\n");
-                    summary.append("  Description: ").append(loc.getDescription()).append("\n");
-                    summary.append("  Completed: ").append(loc.isCompleted() ? "Yes" : "No").append("\n");
-                    summary.append("  Locked: ").append(loc.isLocked() ? "Yes" : "No").append("\n\n");
-                }
+    private String buildHeroSection(HeroDTO fetchedHero, Throwable error) {
+        StringBuilder summary = new StringBuilder("== HERO INFORMATION ==\n");
+        HeroDTO hero = fetchedHero != null ? fetchedHero : currentHero;
+        if (hero != null) {
+            summary.append("ID: ").append(hero.getId()).append("\n");
+            summary.append("Name: ").append(hero.getName()).append("\n");
+            summary.append("Created At: ").append(hero.getCreatedAt()).append("\n");
+            summary.append("Current Location ID: ").append(hero.getCurrentLocationID()).append("\n\n");
+        } else if (error != null) {
+            summary.append("Error accessing hero info: ").append(HttpTransport.unwrap(error).getMessage()).append("\n\n");
+        } else {
+            summary.append("No hero information available.\n\n");
+        }
+        return summary.toString();
+    }
 
-                summary.append("Total Locations: ").append(allLocations.size()).append("\n");
-                summary.append("Completed Locations: ").append(completedCount).append("\n\n");
-            } catch (Exception ex) {
-                summary.append("Error accessing locations info: ").append(ex.getMessage()).append("\n\n");
+    private String buildLocationsSection(List<LocationDTO> locations, Throwable error) {
+        StringBuilder summary = new StringBuilder("== LOCATIONS VISITED ==\n");
+        if (error != null) {
+            summary.append("Error accessing locations info: ").append(HttpTransport.unwrap(error).getMessage()).append("\n\n");
+            return summary.toString();
+        }
+
+        int completedCount = 0;
+        for (LocationDTO loc : locations) {
+            summary.append("- ").append(loc.getName()).append(" (ID: ").append(loc.getId()).append(")\n");
+            summary.append("  Description: ").append(loc.getDescription()).append("\n");
+            summary.append("  Completed: ").append(loc.isCompleted() ? "Yes" : "No").append("\n");
+            summary.append("  Locked: ").append(loc.isLocked() ? "Yes" : "No").append("\n\n");
+            if (loc.isCompleted()) {
+                completedCount++;
             }
+        }
 
-            // PLUSHIES INFO
-            try {
-                summary.append("== PLUSHIES COLLECTED ==\n");
+        summary.append("Total Locations: ").append(locations.size()).append("\n");
+        summary.append("Completed Locations: ").append(completedCount).append("\n\n");
+        return summary.toString();
+    }
 
-                if (collectedPlushies != null && !collectedPlushies.isEmpty()) {
-                    for (PlushieDTO plushie : collectedPlushies) {
-                        summary.append("- ").append(plushie.getName()).append(" (ID: ").append(plushie.getId()).append(")\n");
-                        summary.append("  Description: ").append(plushie.getDescription()).append("\n");
-                        summary.append("  Color: ").append(plushie.getColor()).append("\n\n");
-                    }
+    private String buildPlushiesSection(List<PlushieDTO> collected, Throwable error) {
+        StringBuilder summary = new StringBuilder("== PLUSHIES COLLECTED ==\n");
+        if (error != null) {
+            summary.append("Plushies Collected: ").append(plushiesCollected).append("\n\n");
+            return summary.toString();
+        }
 
-                    summary.append("Total Collected Plushies: ").append(collectedPlushies.size()).append("\n\n");
-                } else {
-                    try {
-                        List<PlushieDTO> allPlushies = plushieService.getAllPlushies();
-                        List<PlushieDTO> collected = allPlushies.stream()
-                                .filter(PlushieDTO::isCollected)
-                                .toList();
-
-                        for (PlushieDTO plushie : collected) {
-                            summary.append("- ").append(plushie.getName()).append(" (ID: ").append(plushie.getId()).append(")\n");
-                            summary.append("  Description: ").append(plushie.getDescription()).append("\n");
-                            summary.append("  Color: ").append(plushie.getColor()).append("\n\n");
-                        }
+        for (PlushieDTO plushie : collected) {
+            summary.append("- ").append(plushie.getName()).append(" (ID: ").append(plushie.getId()).append(")\n");
+            summary.append("  Description: ").append(plushie.getDescription()).append("\n");
+            summary.append("  Color: ").append(plushie.getColor()).append("\n\n");
+        }
 
-                        summary.append("Total Collected Plushies: ").append(collected.size()).append("\n\n");
-                    } catch (Exception e) {
-                        summary.append("Plushies Collected: ").append(plushiesCollected).append("\n\n");
-                    }
-                }
-            } catch (Exception ex) {
-                summary.append("Plushies Collected: ").append(plushiesCollected).append("\n\n");
-            }
+        summary.append("Total Collected Plushies: ").append(collected.size()).append("\n\n");
+        return summary.toString();
+    }
 
-            // MINIGAMES/COMPLETED LOCATIONS
-            try {
-                summary.append("== COMPLETED MINIGAMES ==\n");
-
-                for (Long locationId : completedLocations) {
-                    String locationName = "Unknown";
-                    String description = "";
-                    for (LocationDTO loc : allLocations) {
-                        if (loc.getId().equals(locationId)) {
-                            locationName = loc.getName();
-                            description = loc.getDescription();
-                            break;
-                        }
-                    }
-                    summary.append("- Completed minigame at: ").append(locationName).append(" (ID: ").append(locationId).append(")\n");
-                    if (!description.isEmpty()) {
-                        summary.append("  Location Description: ").append(description).append("\n");
-                    }
-                    summary.append("\n");
+    private String buildCompletedMinigamesSection(List<LocationDTO> locations, Throwable error) {
+        StringBuilder summary = new StringBuilder("== COMPLETED MINIGAMES ==\n");
+        List<LocationDTO> knownLocations = locations != null ? locations : allLocations;
+
+        for (Long locationId : completedLocations) {
+            String locationName = "Unknown";
+            String description = "";
+            for (LocationDTO loc : knownLocations) {
+                if (loc.getId().equals(locationId)) {
+                    locationName = loc.getName();
+                    description = loc.getDescription();
+                    break;
                 }
-
-                summary.append("Total Completed Minigames: ").append(completedLocations.size()).append("\n\n");
-            } catch (Exception ex) {
-                summary.append("Error accessing completed locations: ").append(ex.getMessage()).append("\n\n");
             }
+            summary.append("- Completed minigame at: ").append(locationName).append(" (ID: ").append(locationId).append(")\n");
+            if (description != null && !description.isEmpty()) {
+                summary.append("  Location Description: ").append(description).append("\n");
+            }
+            summary.append("\n");
+        }
 
-            summary.append("=== END OF GAME SUMMARY ===");
-
-            SwingUtilities.invokeLater(() -> {
-                textArea.setText(summary.toString());
-                textArea.setCaretPosition(0);
-            });
-        }).start();
+        summary.append("Total Completed Minigames: ").append(completedLocations.size()).append("\n\n");
+        return summary.toString();
     }
     // -----------------------------------------------------------------------------------
     // RESTART GAME
@@ -952,19 +1009,27 @@ public class GameInterfaceGUI extends JFrame {
         completedLocations.clear();
         collectedPlushies.clear();
 
-        try {
-            plushieService.resetAllPlushies();
-            locationService.resetAllLocations();
-            allLocations = locationService.getAllLocations();
+        // Back to the welcome screen right away; the map is redrawn once the backend confirms
+        GameReset.Started reset = gameReset.start();
+        if (reset.locations() != null) {
+            allLocations = reset.locations();
             populateLocationButtons();
-            cardLayout.show(mainPanel, "welcome");
-        } catch (Exception ex) {
-            System.err.println("Error resetting game: " + ex.getMessage());
-            JOptionPane.showMessageDialog(this,
-                    "Error resetting game: " + ex.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
         }
+        cardLayout.show(mainPanel, "welcome");
+
+        reset.refreshed().whenCompleteAsync((locations, error) -> {
+            if (error != null) {
+                Throwable cause = HttpTransport.unwrap(error);
+                System.err.println("Error resetting game: " + cause.getMessage());
+                JOptionPane.showMessageDialog(this,
+                        "Error resetting game: " + cause.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            allLocations = locations;
+            populateLocationButtons();
+        }, BackgroundExecutor.edt());
     }
 
     // -----------------------------------------------------------------------------------
@@ -1053,11 +1118,8 @@ public class GameInterfaceGUI extends JFrame {
             plushiePanel.setLayout(new BoxLayout(plushiePanel, BoxLayout.Y_AXIS));
 
             try {
-                List<PlushieDTO> allPlushies = plushieService.getAllPlushies();
-                // Filter to only show collected plushies
-                List<PlushieDTO> collectedPlushies = allPlushies.stream()
-                        .filter(PlushieDTO::isCollected)
-                        .toList();
+                // Only the collected plushies are fetched, a page at a time
+                List<PlushieDTO> collectedPlushies = plushieService.streamCollectedPlushies().toList();
 
                 if (collectedPlushies.isEmpty()) {
                     JLabel emptyLabel = new JLabel("No plushies collected yet!");
@@ -0,0 +1,47 @@
+package com.keyin.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import javax.swing.SwingUtilities;
+
+/**
+ * Central executor for background work. Every task runs on its own virtual
+ * thread, so blocking HTTP calls and UI prefetches don't tie up platform threads.
+ */
+public class BackgroundExecutor {
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("keyin-virtual-", 0).factory());
+
+    private static final Executor EDT = SwingUtilities::invokeLater;
+
+    /**
+     * The shared virtual-thread executor
+     */
+    public static ExecutorService executor() {
+        return EXECUTOR;
+    }
+
+    /**
+     * Executor that hands work back to the Swing event dispatch thread
+     */
+    public static Executor edt() {
+        return EDT;
+    }
+
+    /**
+     * Runs a task on a virtual thread
+     */
+    public static CompletableFuture<Void> run(Runnable task) {
+        return CompletableFuture.runAsync(task, EXECUTOR);
+    }
+
+    /**
+     * Computes a value on a virtual thread
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, EXECUTOR);
+    }
+}
@@ -0,0 +1,71 @@
+package com.keyin;
+
+import com.keyin.hero.HeroDTO;
+import com.keyin.hero.HeroService;
+import com.keyin.location.LocationDTO;
+import com.keyin.location.LocationService;
+import com.keyin.plushie.PlushieDTO;
+import com.keyin.plushie.PlushieService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ClientBootstrapTest {
+
+    @Mock
+    private HeroService heroService;
+
+    @Mock
+    private LocationService locationService;
+
+    @Mock
+    private PlushieService plushieService;
+
+    @Test
+    void start_ShouldFetchAllPartsConcurrently() {
+        CompletableFuture<HeroDTO> hero = new CompletableFuture<>();
+        CompletableFuture<List<LocationDTO>> locations = new CompletableFuture<>();
+        CompletableFuture<List<PlushieDTO>> plushies = new CompletableFuture<>();
+        when(heroService.getCurrentHeroAsync()).thenReturn(hero);
+        when(locationService.getAllLocationsAsync()).thenReturn(locations);
+        when(plushieService.syncPlushiesAsync()).thenReturn(plushies);
+
+        CompletableFuture<ClientBootstrap.Snapshot> snapshot =
+                new ClientBootstrap(heroService, locationService, plushieService).start();
+
+        // All three requests are out before any of them has answered
+        verify(heroService).getCurrentHeroAsync();
+        verify(locationService).getAllLocationsAsync();
+        verify(plushieService).syncPlushiesAsync();
+
+        hero.complete(new HeroDTO());
+        locations.complete(List.of(new LocationDTO()));
+        plushies.complete(List.of(new PlushieDTO()));
+
+        assertEquals(1, snapshot.join().locations().size());
+    }
+
+    @Test
+    void start_WhenOnePartFails_ShouldStillReturnTheOthers() {
+        when(heroService.getCurrentHeroAsync())
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Failed to get hero: HTTP 404")));
+        when(locationService.getAllLocationsAsync()).thenReturn(CompletableFuture.completedFuture(List.of()));
+        when(plushieService.syncPlushiesAsync())
+                .thenReturn(CompletableFuture.completedFuture(List.of(new PlushieDTO())));
+
+        ClientBootstrap.Snapshot snapshot =
+                new ClientBootstrap(heroService, locationService, plushieService).start().join();
+
+        assertNull(snapshot.hero());
+        assertNotNull(snapshot.locations());
+        assertEquals(1, snapshot.plushies().size());
+    }
+}
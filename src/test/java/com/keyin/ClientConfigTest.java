@@ -0,0 +1,49 @@
+package com.keyin;
+
+import com.keyin.http.BackendBalancer;
+import com.keyin.http.RequestLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClientConfigTest {
+
+    @Test
+    void from_WithReplicasAndStrategy_ShouldParseBoth() {
+        Properties properties = new Properties();
+        properties.setProperty(ClientConfig.BACKEND_URLS, "http://a:8080, http://b:8080,");
+        properties.setProperty(ClientConfig.BACKEND_BALANCING, "least-outstanding");
+
+        ClientConfig config = ClientConfig.from(properties);
+
+        assertEquals(List.of("http://a:8080", "http://b:8080"), config.getBackendUrls());
+        assertEquals(BackendBalancer.Strategy.LEAST_OUTSTANDING, config.getBalancing());
+    }
+
+    @Test
+    void from_WhenEmpty_ShouldDefaultToLocalBackend() {
+        ClientConfig config = ClientConfig.from(new Properties());
+
+        assertEquals(List.of(ClientConfig.DEFAULT_BACKEND_URL), config.getBackendUrls());
+        assertEquals(BackendBalancer.Strategy.ROUND_ROBIN, config.getBalancing());
+        assertTrue(config.getLimits().isEmpty());
+    }
+
+    @Test
+    void from_WithServiceLimits_ShouldParseThemPerService() {
+        Properties properties = new Properties();
+        properties.setProperty("keyin.limits.plushie.rate", "20");
+        properties.setProperty("keyin.limits.plushie.burst", "10");
+        properties.setProperty("keyin.limits.plushie.max-in-flight", "4");
+        properties.setProperty("keyin.limits.plushie.queue", "32");
+        properties.setProperty("keyin.limits.location.max-in-flight", "2");
+
+        ClientConfig config = ClientConfig.from(properties);
+
+        assertEquals(new RequestLimiter.Limits(20, 10, 4, 32), config.getLimits().get("plushie"));
+        assertEquals(new RequestLimiter.Limits(0, 2, 2, 0), config.getLimits().get("location"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.keyin;
+
+import com.keyin.location.LocationDTO;
+import com.keyin.location.LocationService;
+import com.keyin.plushie.PlushieService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GameResetTest {
+
+    @Mock
+    private LocationService locationService;
+
+    @Mock
+    private PlushieService plushieService;
+
+    @Test
+    void start_ShouldSendBothResetsBeforeRefreshing() {
+        CompletableFuture<Void> plushieReset = new CompletableFuture<>();
+        CompletableFuture<Void> locationReset = new CompletableFuture<>();
+        List<LocationDTO> refreshed = List.of(new LocationDTO());
+        when(plushieService.resetAllPlushiesAsync()).thenReturn(plushieReset);
+        when(locationService.resetAllLocationsAsync()).thenReturn(locationReset);
+        when(locationService.getAllLocationsAsync()).thenReturn(CompletableFuture.completedFuture(refreshed));
+        when(plushieService.syncPlushiesAsync()).thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        List<LocationDTO> preview = List.of(new LocationDTO());
+        when(locationService.previewReset()).thenReturn(preview);
+
+        GameReset.Started started = new GameReset(locationService, plushieService).start();
+        CompletableFuture<List<LocationDTO>> reset = started.refreshed();
+
+        // The reset map is ready and both requests are out before either has answered
+        assertSame(preview, started.locations());
+        InOrder inOrder = inOrder(locationService);
+        inOrder.verify(locationService).previewReset();
+        inOrder.verify(locationService).resetAllLocationsAsync();
+        verify(plushieService).resetAllPlushiesAsync();
+        verify(locationService, never()).getAllLocationsAsync();
+
+        locationReset.complete(null);
+        assertFalse(reset.isDone());
+        plushieReset.complete(null);
+
+        assertSame(refreshed, reset.join());
+        verify(plushieService).syncPlushiesAsync();
+    }
+
+    @Test
+    void start_WhenResetFails_ShouldDropLocalCatalogAndFail() {
+        when(plushieService.resetAllPlushiesAsync()).thenReturn(CompletableFuture.completedFuture(null));
+        when(locationService.resetAllLocationsAsync()).thenReturn(
+                CompletableFuture.failedFuture(new RuntimeException("Failed to reset locations: HTTP 500")));
+
+        CompletableFuture<List<LocationDTO>> reset = new GameReset(locationService, plushieService).start().refreshed();
+
+        CompletionException exception = assertThrows(CompletionException.class, reset::join);
+        assertEquals("Failed to reset locations: HTTP 500", exception.getCause().getMessage());
+        verify(locationService).invalidate();
+        verify(locationService, never()).getAllLocationsAsync();
+    }
+}
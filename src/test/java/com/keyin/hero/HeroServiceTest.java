@@ -1,17 +1,22 @@
 package com.keyin.hero;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.keyin.http.HttpTransport;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,15 +33,13 @@ public class HeroServiceTest {
     private HttpClient mockHttpClient;
 
     @Mock
-    private HttpResponse<String> mockResponse;
+    private HttpResponse<InputStream> mockResponse;
 
     private ObjectMapper realObjectMapper;
 
     @BeforeEach
     void setUp() throws Exception {
-        heroService = new HeroService(baseUrl);
-
-        setPrivateField(heroService, "client", mockHttpClient);
+        heroService = new HeroService(new HttpTransport(baseUrl, mockHttpClient));
 
         realObjectMapper = new ObjectMapper();
     }
@@ -49,10 +52,10 @@ public class HeroServiceTest {
         expectedHero.setName(heroName);
 
         when(mockResponse.statusCode()).thenReturn(200);
-        when(mockResponse.body()).thenReturn(realObjectMapper.writeValueAsString(expectedHero));
+        when(mockResponse.body()).thenReturn(new ByteArrayInputStream(realObjectMapper.writeValueAsBytes(expectedHero)));
 
-        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
-                .thenReturn(mockResponse);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
 
         HeroDTO result = heroService.updateHero(heroName);
 
@@ -61,7 +64,7 @@ public class HeroServiceTest {
         assertEquals(heroName, result.getName());
         assertEquals(1L, heroService.getCurrentHeroId());
 
-        verify(mockHttpClient).send(argThat(request -> {
+        verify(mockHttpClient).sendAsync(argThat(request -> {
             URI uri = request.uri();
             assertEquals(baseUrl + "/api/heroes/1", uri.toString());
             assertEquals("PUT", request.method());
@@ -81,10 +84,10 @@ public class HeroServiceTest {
         expectedHero.setName(heroName);
 
         when(mockResponse.statusCode()).thenReturn(200);
-        when(mockResponse.body()).thenReturn(realObjectMapper.writeValueAsString(expectedHero));
+        when(mockResponse.body()).thenReturn(new ByteArrayInputStream(realObjectMapper.writeValueAsBytes(expectedHero)));
 
-        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
-                .thenReturn(mockResponse);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
 
         HeroDTO result = heroService.createHero(heroName);
 
@@ -93,7 +96,7 @@ public class HeroServiceTest {
         assertEquals(heroName, result.getName());
         assertEquals(2L, heroService.getCurrentHeroId());
 
-        verify(mockHttpClient).send(argThat(request -> {
+        verify(mockHttpClient).sendAsync(argThat(request -> {
             URI uri = request.uri();
             assertEquals(baseUrl + "/api/heroes", uri.toString());
             assertEquals("POST", request.method());
@@ -112,10 +115,11 @@ public class HeroServiceTest {
         expectedHero.setName("Flash");
 
         when(mockResponse.statusCode()).thenReturn(200);
-        when(mockResponse.body()).thenReturn(realObjectMapper.writeValueAsString(expectedHero));
+        when(mockResponse.body()).thenReturn(new ByteArrayInputStream(realObjectMapper.writeValueAsBytes(expectedHero)));
+        when(mockResponse.headers()).thenReturn(HttpHeaders.of(Map.of(), (name, value) -> true));
 
-        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
-                .thenReturn(mockResponse);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
 
         HeroDTO result = heroService.getCurrentHero();
 
@@ -123,19 +127,58 @@ public class HeroServiceTest {
         assertEquals(1L, result.getId());
         assertEquals("Flash", result.getName());
 
-        verify(mockHttpClient).send(argThat(request -> {
+        verify(mockHttpClient).sendAsync(argThat(request -> {
             URI uri = request.uri();
-            assertTrue(uri.toString().startsWith(baseUrl + "/api/heroes/1?t="));
+            assertEquals(baseUrl + "/api/heroes/1", uri.toString());
             assertEquals("GET", request.method());
             return true;
         }), any());
     }
 
+    @Test
+    void getCurrentHero_AfterCreateHero_ShouldBeServedFromCache() throws Exception {
+        HeroDTO createdHero = new HeroDTO();
+        createdHero.setId(3L);
+        createdHero.setName("Storm");
+
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn(new ByteArrayInputStream(realObjectMapper.writeValueAsBytes(createdHero)));
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
+
+        heroService.createHero("Storm");
+        HeroDTO result = heroService.getCurrentHero();
+
+        assertEquals("Storm", result.getName());
+        verify(mockHttpClient, times(1)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void getCurrentHero_WithForceFresh_ShouldBypassCache() throws Exception {
+        HeroDTO hero = new HeroDTO();
+        hero.setId(1L);
+        hero.setName("Flash");
+
+        when(mockResponse.statusCode()).thenReturn(200);
+        byte[] body = realObjectMapper.writeValueAsBytes(hero);
+        when(mockResponse.body()).thenAnswer(invocation -> new ByteArrayInputStream(body));
+        when(mockResponse.headers()).thenReturn(HttpHeaders.of(Map.of(), (name, value) -> true));
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
+
+        heroService.getCurrentHero();
+        heroService.getCurrentHero(HeroCache.Freshness.FORCE_FRESH);
+
+        verify(mockHttpClient, times(2)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        verify(mockHttpClient).sendAsync(argThat(request ->
+                "no-cache".equals(request.headers().firstValue("Cache-Control").orElse(null))), any());
+    }
+
     @Test
     void updateHero_WhenServerReturnsError_ShouldThrowException() throws Exception {
         when(mockResponse.statusCode()).thenReturn(500);
-        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
-                .thenReturn(mockResponse);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             heroService.updateHero("Superman");
@@ -147,8 +190,8 @@ public class HeroServiceTest {
     @Test
     void createHero_WhenServerReturnsError_ShouldThrowException() throws Exception {
         when(mockResponse.statusCode()).thenReturn(500);
-        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
-                .thenReturn(mockResponse);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             heroService.createHero("Batman");
@@ -160,8 +203,8 @@ public class HeroServiceTest {
     @Test
     void getCurrentHero_WhenServerReturnsError_ShouldThrowException() throws Exception {
         when(mockResponse.statusCode()).thenReturn(404);
-        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
-                .thenReturn(mockResponse);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             heroService.getCurrentHero();
@@ -185,14 +228,4 @@ public class HeroServiceTest {
 
         assertEquals(initialId, heroService.getCurrentHeroId());
     }
-
-    private void setPrivateField(Object target, String fieldName, Object value) {
-        try {
-            java.lang.reflect.Field field = target.getClass().getDeclaredField(fieldName);
-            field.setAccessible(true);
-            field.set(target, value);
-        } catch (Exception e) {
-            throw new RuntimeException("Could not set field: " + fieldName, e);
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.keyin.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BackendBalancerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private BackendBalancer balancer(BackendBalancer.Strategy strategy) {
+        return new BackendBalancer(List.of("http://a:8080", "http://b:8080/", "http://c:8080"), strategy,
+                2, Duration.ofSeconds(10), clock::get);
+    }
+
+    @Test
+    void acquire_RoundRobin_ShouldCycleThroughReplicas() {
+        BackendBalancer balancer = balancer(BackendBalancer.Strategy.ROUND_ROBIN);
+
+        List<String> picked = List.of(balancer.acquire(), balancer.acquire(), balancer.acquire(), balancer.acquire())
+                .stream().map(BackendBalancer.Backend::getBaseUrl).toList();
+
+        assertEquals(List.of("http://a:8080", "http://b:8080", "http://c:8080", "http://a:8080"), picked);
+    }
+
+    @Test
+    void acquire_LeastOutstanding_ShouldAvoidBusyReplicas() {
+        BackendBalancer balancer = balancer(BackendBalancer.Strategy.LEAST_OUTSTANDING);
+        BackendBalancer.Backend first = balancer.acquire();
+        BackendBalancer.Backend second = balancer.acquire();
+        balancer.release(first, true);
+
+        BackendBalancer.Backend third = balancer.acquire();
+        BackendBalancer.Backend fourth = balancer.acquire();
+
+        assertNotEquals(second, third);
+        assertNotEquals(second, fourth);
+        assertNotEquals(third, fourth);
+    }
+
+    @Test
+    void release_AfterConsecutiveFailures_ShouldEjectUntilDurationPasses() {
+        BackendBalancer balancer = balancer(BackendBalancer.Strategy.ROUND_ROBIN);
+        BackendBalancer.Backend a = balancer.getBackends().get(0);
+        balancer.release(balancer.acquire(), false);
+        balancer.acquire();
+        balancer.acquire();
+        balancer.release(balancer.acquire(), false);
+
+        assertTrue(balancer.isEjected(a));
+        for (int i = 0; i < 4; i++) {
+            assertNotEquals(a, balancer.acquire());
+        }
+
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+        assertFalse(balancer.isEjected(a));
+    }
+
+    @Test
+    void route_ShouldMoveRequestToChosenReplica() {
+        BackendBalancer balancer = balancer(BackendBalancer.Strategy.ROUND_ROBIN);
+        BackendBalancer.Backend b = balancer.getBackends().get(1);
+
+        URI routed = balancer.route(URI.create("http://a:8080/plushie?collected=true"), b);
+
+        assertEquals(URI.create("http://b:8080/plushie?collected=true"), routed);
+    }
+
+    @Test
+    void route_WhenOnlyThePortStartsTheSame_ShouldLeaveRequestAlone() {
+        BackendBalancer balancer = balancer(BackendBalancer.Strategy.ROUND_ROBIN);
+        BackendBalancer.Backend b = balancer.getBackends().get(1);
+
+        URI otherPort = URI.create("http://a:80801/plushie");
+
+        assertEquals(otherPort, balancer.route(otherPort, b));
+    }
+
+    @Test
+    void route_WithBasePath_ShouldOnlyMatchOnASegmentBoundary() {
+        BackendBalancer balancer = new BackendBalancer(List.of("http://a:8080/api", "http://b:8080/api"),
+                BackendBalancer.Strategy.ROUND_ROBIN, 2, Duration.ofSeconds(10), clock::get);
+        BackendBalancer.Backend b = balancer.getBackends().get(1);
+
+        assertEquals(URI.create("http://b:8080/api/heroes/1"), balancer.route(URI.create("http://a:8080/api/heroes/1"), b));
+        assertEquals(URI.create("http://a:8080/apix/heroes"), balancer.route(URI.create("http://a:8080/apix/heroes"), b));
+    }
+}
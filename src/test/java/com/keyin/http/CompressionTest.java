@@ -0,0 +1,101 @@
+package com.keyin.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionTest {
+
+    private static final String BODY = "[{\"id\":1,\"name\":\"Snowy Owl\",\"collected\":false}]".repeat(200);
+
+    @Test
+    void decoding_GzipInSmallChunks_ShouldInflateBody() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(BODY.getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Chunks smaller than the gzip header exercise the header buffering
+        assertEquals(BODY, decode("gzip", compressed.toByteArray(), 3));
+    }
+
+    @Test
+    void decoding_Deflate_ShouldInflateBody() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(compressed)) {
+            deflate.write(BODY.getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(BODY, decode("deflate", compressed.toByteArray(), 512));
+    }
+
+    @Test
+    void decoding_NoContentEncoding_ShouldPassBodyThrough() {
+        assertEquals(BODY, decode(null, BODY.getBytes(StandardCharsets.UTF_8), 100));
+    }
+
+    @Test
+    void decoding_CorruptGzip_ShouldFailBody() {
+        byte[] garbage = "definitely not gzip".getBytes(StandardCharsets.UTF_8);
+
+        CompletionException exception = assertThrows(CompletionException.class, () -> decode("gzip", garbage, 100));
+        assertInstanceOf(IOException.class, exception.getCause());
+    }
+
+    private static String decode(String encoding, byte[] body, int chunkSize) {
+        HttpHeaders headers = HttpHeaders.of(
+                encoding == null ? Map.of() : Map.of("Content-Encoding", List.of(encoding)),
+                (name, value) -> true);
+        HttpResponse.BodySubscriber<String> subscriber = Compression.decoding(HttpResponse.BodyHandlers.ofString())
+                .apply(responseInfo(headers));
+
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        for (int offset = 0; offset < body.length; offset += chunkSize) {
+            int length = Math.min(chunkSize, body.length - offset);
+            subscriber.onNext(List.of(ByteBuffer.wrap(body, offset, length)));
+        }
+        subscriber.onComplete();
+        return subscriber.getBody().toCompletableFuture().join();
+    }
+
+    private static HttpResponse.ResponseInfo responseInfo(HttpHeaders headers) {
+        return new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return 200;
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return headers;
+            }
+
+            @Override
+            public HttpClient.Version version() {
+                return HttpClient.Version.HTTP_1_1;
+            }
+        };
+    }
+}
@@ -0,0 +1,171 @@
+package com.keyin.http;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DeltaSyncTest {
+
+    private final String baseUrl = "http://localhost:8080";
+
+    @Mock
+    private HttpClient mockHttpClient;
+
+    @Mock
+    private HttpResponse<InputStream> fullResponse;
+
+    @Mock
+    private HttpResponse<InputStream> deltaResponse;
+
+    private DeltaSync<Item> sync;
+
+    private int fullFetches;
+
+    record Item(Long id, boolean collected) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        HttpTransport transport = new HttpTransport(baseUrl, mockHttpClient);
+        transport.setRetryPolicy(RetryPolicy.none());
+        sync = new DeltaSync<>(transport, URI.create(baseUrl + "/plushie"), new TypeReference<List<Item>>() {},
+                Item::id, () -> {
+                    fullFetches++;
+                    return CompletableFuture.completedFuture(List.of());
+                }, "Failed to get plushies");
+    }
+
+    @Test
+    void sync_WithCursor_ShouldRequestOnlyChangesAndMerge() throws Exception {
+        stub(fullResponse, "[{\"id\":1,\"collected\":false},{\"id\":2,\"collected\":false}]",
+                Map.of(DeltaSync.VERSION_HEADER, List.of("7")));
+        stub(deltaResponse, "[{\"id\":2,\"collected\":true}]",
+                Map.of(DeltaSync.VERSION_HEADER, List.of("8"), DeltaSync.DELTA_HEADER, List.of("true")));
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(fullResponse))
+                .thenReturn(CompletableFuture.completedFuture(deltaResponse));
+
+        HttpTransport.await(sync.sync());
+        List<Item> catalog = HttpTransport.await(sync.sync());
+
+        assertEquals(List.of(new Item(1L, false), new Item(2L, true)), catalog);
+        assertEquals("8", sync.getCursor());
+
+        ArgumentCaptor<HttpRequest> requests = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(mockHttpClient, times(2)).sendAsync(requests.capture(), any());
+        assertEquals("since=7", requests.getAllValues().get(1).uri().getQuery());
+    }
+
+    @Test
+    void sync_WithOpaqueCursor_ShouldEncodeItIntoTheQuery() throws Exception {
+        stub(fullResponse, "[{\"id\":1,\"collected\":false}]",
+                Map.of(DeltaSync.VERSION_HEADER, List.of("v 2+b&c=d")));
+        stub(deltaResponse, "[]",
+                Map.of(DeltaSync.VERSION_HEADER, List.of("v3"), DeltaSync.DELTA_HEADER, List.of("true")));
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(fullResponse))
+                .thenReturn(CompletableFuture.completedFuture(deltaResponse));
+
+        HttpTransport.await(sync.sync());
+        HttpTransport.await(sync.sync());
+
+        ArgumentCaptor<HttpRequest> requests = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(mockHttpClient, times(2)).sendAsync(requests.capture(), any());
+        assertEquals("since=v+2%2Bb%26c%3Dd", requests.getAllValues().get(1).uri().getRawQuery());
+    }
+
+    @Test
+    void sync_WhenBackendSendsNoVersion_ShouldFallBackToFullFetch() throws Exception {
+        stub(fullResponse, "[{\"id\":1,\"collected\":false}]", Map.of());
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(fullResponse));
+
+        assertEquals(1, HttpTransport.await(sync.sync()).size());
+        HttpTransport.await(sync.sync());
+
+        assertNull(sync.getCursor());
+        assertEquals(1, fullFetches);
+        verify(mockHttpClient, times(1)).sendAsync(any(HttpRequest.class), any());
+    }
+
+    @Test
+    void sync_WhenCursorExpired_ShouldRefetchWholeCatalog() throws Exception {
+        stub(fullResponse, "[{\"id\":1,\"collected\":false}]", Map.of(DeltaSync.VERSION_HEADER, List.of("3")));
+        when(deltaResponse.statusCode()).thenReturn(410);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(fullResponse))
+                .thenReturn(CompletableFuture.completedFuture(deltaResponse))
+                .thenReturn(CompletableFuture.completedFuture(fullResponse));
+
+        HttpTransport.await(sync.sync());
+        List<Item> catalog = HttpTransport.await(sync.sync());
+
+        assertEquals(List.of(new Item(1L, false)), catalog);
+        verify(mockHttpClient, times(3)).sendAsync(any(HttpRequest.class), any());
+    }
+
+    @Test
+    void sync_WhenResetWhileInFlight_ShouldDropTheOutdatedResult() throws Exception {
+        stub(fullResponse, "[{\"id\":1,\"collected\":true}]", Map.of(DeltaSync.VERSION_HEADER, List.of("3")));
+        CompletableFuture<HttpResponse<InputStream>> pending = new CompletableFuture<>();
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(pending);
+
+        CompletableFuture<List<Item>> outdated = sync.sync();
+        sync.reset();
+        pending.complete(fullResponse);
+
+        assertEquals(1, HttpTransport.await(outdated).size());
+        assertNull(sync.peek());
+        assertNull(sync.getCursor());
+    }
+
+    @Test
+    void sync_AfterInvalidate_ShouldNotJoinTheSyncInFlight() throws Exception {
+        stub(fullResponse, "[{\"id\":1,\"collected\":false}]", Map.of(DeltaSync.VERSION_HEADER, List.of("7")));
+        stub(deltaResponse, "[{\"id\":1,\"collected\":true}]", Map.of(DeltaSync.VERSION_HEADER, List.of("8")));
+        CompletableFuture<HttpResponse<InputStream>> beforeWrite = new CompletableFuture<>();
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(beforeWrite)
+                .thenReturn(CompletableFuture.completedFuture(deltaResponse));
+
+        CompletableFuture<List<Item>> outdated = sync.sync();
+        sync.invalidate();
+        List<Item> fresh = HttpTransport.await(sync.sync());
+        beforeWrite.complete(fullResponse);
+        HttpTransport.await(outdated);
+
+        assertEquals(List.of(new Item(1L, true)), fresh);
+        assertEquals(List.of(new Item(1L, true)), sync.peek());
+        assertEquals("8", sync.getCursor());
+        verify(mockHttpClient, times(2)).sendAsync(any(HttpRequest.class), any());
+    }
+
+    private static void stub(HttpResponse<InputStream> response, String body, Map<String, List<String>> headers) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        when(response.statusCode()).thenReturn(200);
+        when(response.body()).thenAnswer(invocation -> new ByteArrayInputStream(bytes));
+        when(response.headers()).thenReturn(HttpHeaders.of(headers, (name, value) -> true));
+    }
+}
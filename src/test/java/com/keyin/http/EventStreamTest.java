@@ -0,0 +1,79 @@
+package com.keyin.http;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class EventStreamTest {
+
+    private EventStream events;
+    private List<EventStream.Event> received;
+
+    @BeforeEach
+    void setUp() {
+        events = new EventStream(null, URI.create("http://localhost:8080/events"));
+        received = new ArrayList<>();
+        events.on("location-completed", received::add);
+    }
+
+    @Test
+    void accept_CompleteEvent_ShouldDispatchToListenersForItsType() {
+        feed(": keep-alive", "id: 41", "event: location-completed", "data: {\"id\":3}", "");
+
+        assertEquals(List.of(new EventStream.Event("41", "location-completed", "{\"id\":3}")), received);
+        assertEquals("41", events.getLastEventId());
+    }
+
+    @Test
+    void accept_MultipleDataLines_ShouldJoinWithNewlines() {
+        feed("event: location-completed", "data: first", "data:second", "");
+
+        assertEquals("first\nsecond", received.get(0).data());
+    }
+
+    @Test
+    void accept_EventWithoutData_ShouldOnlyAdvanceLastEventId() {
+        feed("id: 7", "event: location-completed", "");
+        feed("event: plushie-collected", "data: {\"id\":1}", "");
+
+        assertTrue(received.isEmpty());
+        assertEquals("7", events.getLastEventId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void start_WhenBackendHasNoEventStream_ShouldStopInsteadOfReconnecting() throws Exception {
+        HttpClient client = mock(HttpClient.class);
+        HttpResponse<Object> notFound = mock(HttpResponse.class);
+        when(notFound.statusCode()).thenReturn(404);
+        when(client.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(notFound));
+        EventStream stream = new EventStream(new HttpTransport("http://localhost:8080", client),
+                URI.create("http://localhost:8080/events"));
+
+        stream.start();
+        for (int i = 0; i < 100 && stream.isRunning(); i++) {
+            Thread.sleep(20);
+        }
+
+        assertFalse(stream.isRunning());
+        verify(client, times(1)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    private void feed(String... lines) {
+        for (String line : lines) {
+            events.accept(line);
+        }
+    }
+}
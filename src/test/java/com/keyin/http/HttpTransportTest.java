@@ -0,0 +1,241 @@
+package com.keyin.http;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class HttpTransportTest {
+
+    private final String baseUrl = "http://localhost:8080";
+
+    @Mock
+    private HttpClient mockHttpClient;
+
+    @Mock
+    private HttpResponse<String> okResponse;
+
+    @Mock
+    private HttpResponse<String> unavailableResponse;
+
+    private HttpTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        transport = new HttpTransport(baseUrl, mockHttpClient);
+        transport.setRetryPolicy(new RetryPolicy(3, Duration.ofMillis(1), Duration.ofMillis(5), 0.5, Set.of(503)));
+    }
+
+    @Test
+    void sendAsync_WhenBackendRestarts_ShouldRetryWithSameIdempotencyKey() throws Exception {
+        when(okResponse.statusCode()).thenReturn(200);
+        when(unavailableResponse.statusCode()).thenReturn(503);
+        when(unavailableResponse.headers()).thenReturn(HttpHeaders.of(Map.of(), (name, value) -> true));
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.failedFuture(new ConnectException("Connection refused")))
+                .thenReturn(CompletableFuture.completedFuture(unavailableResponse))
+                .thenReturn(CompletableFuture.completedFuture(okResponse));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/plushie/1/collect"))
+                .PUT(HttpRequest.BodyPublishers.ofString("{}"))
+                .build();
+        HttpResponse<String> response = HttpTransport.await(
+                transport.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+
+        assertEquals(200, response.statusCode());
+
+        ArgumentCaptor<HttpRequest> sent = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(mockHttpClient, times(3)).sendAsync(sent.capture(), any());
+        List<String> keys = sent.getAllValues().stream()
+                .map(attempt -> attempt.headers().firstValue(HttpTransport.IDEMPOTENCY_KEY).orElseThrow())
+                .distinct()
+                .toList();
+        assertEquals(1, keys.size());
+    }
+
+    @Test
+    void sendAsync_WhenStatusIsNotRetryable_ShouldReturnItDirectly() throws Exception {
+        when(okResponse.statusCode()).thenReturn(500);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(okResponse));
+
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(baseUrl + "/location")).GET().build();
+        HttpResponse<String> response = HttpTransport.await(
+                transport.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+
+        assertEquals(500, response.statusCode());
+        verify(mockHttpClient, times(1)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        verify(mockHttpClient).sendAsync(argThat(sentRequest ->
+                sentRequest.headers().firstValue(HttpTransport.IDEMPOTENCY_KEY).isEmpty()), any());
+    }
+
+    @Test
+    void sendAsync_ShouldRecordMetricsPerEndpoint() throws Exception {
+        when(okResponse.statusCode()).thenReturn(200);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(okResponse))
+                .thenReturn(CompletableFuture.failedFuture(new ConnectException("Connection refused")));
+        transport.setRetryPolicy(RetryPolicy.none());
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/location/3"))
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"completed\":true}"))
+                .build();
+        HttpTransport.await(transport.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        assertThrows(ConnectException.class,
+                () -> HttpTransport.await(transport.sendAsync(request, HttpResponse.BodyHandlers.ofString())));
+
+        HttpMetrics.Snapshot snapshot = transport.getMetrics().snapshot().get(0);
+        assertEquals("PUT /location/{id}", snapshot.endpoint());
+        assertEquals(2, snapshot.requests());
+        assertEquals(1, snapshot.failures());
+        assertEquals(Map.of(200, 1L), snapshot.statuses());
+        assertEquals(36, snapshot.bytesOut());
+        assertEquals(2, snapshot.attempts());
+        assertTrue(transport.getMetrics().dump().contains("PUT /location/{id}"));
+    }
+
+    @Test
+    void sendAsync_WhenRetried_ShouldCountEveryAttempt() throws Exception {
+        when(okResponse.statusCode()).thenReturn(200);
+        when(unavailableResponse.statusCode()).thenReturn(503);
+        when(unavailableResponse.headers()).thenReturn(HttpHeaders.of(Map.of(), (name, value) -> true));
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.failedFuture(new ConnectException("Connection refused")))
+                .thenReturn(CompletableFuture.completedFuture(unavailableResponse))
+                .thenReturn(CompletableFuture.completedFuture(okResponse));
+
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(baseUrl + "/location")).GET().build();
+        HttpTransport.await(transport.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+
+        HttpMetrics.Snapshot snapshot = transport.getMetrics().snapshot().get(0);
+        assertEquals(1, snapshot.requests());
+        assertEquals(3, snapshot.attempts());
+        assertEquals(1, transport.latency("GET /location").getCount());
+    }
+
+    @Test
+    void sendAsync_WhenGetIsSlowerThanP95_ShouldHedgeAndTakeFirstAnswer() throws Exception {
+        LatencyHistogram latency = transport.latency("GET /plushie");
+        for (int i = 0; i < 20; i++) {
+            latency.recordMicros(1_000);
+        }
+        CompletableFuture<HttpResponse<String>> stuck = new CompletableFuture<>();
+        when(okResponse.statusCode()).thenReturn(200);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(stuck)
+                .thenReturn(CompletableFuture.completedFuture(okResponse));
+
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(baseUrl + "/plushie")).GET().build();
+        HttpResponse<String> response = HttpTransport.await(
+                transport.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+
+        assertEquals(200, response.statusCode());
+        assertTrue(stuck.isCancelled());
+        verify(mockHttpClient, times(2)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void sendAsync_ShouldApplyEndpointDeadlineAsRequestTimeout() throws Exception {
+        transport.setDeadline("GET /plushie", Duration.ofSeconds(2));
+        when(okResponse.statusCode()).thenReturn(200);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(okResponse));
+
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(baseUrl + "/plushie")).GET().build();
+        HttpTransport.await(transport.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+
+        verify(mockHttpClient).sendAsync(argThat(sentRequest -> sentRequest.timeout()
+                .map(timeout -> timeout.compareTo(Duration.ofSeconds(2)) <= 0)
+                .orElse(false)), any());
+    }
+
+    @Test
+    void sendAsync_OverServiceLimits_ShouldQueueThenRejectWithoutSending() throws Exception {
+        transport.setLimits("plushie", new RequestLimiter.Limits(0, 1, 1, 1));
+        CompletableFuture<HttpResponse<String>> pending = new CompletableFuture<>();
+        when(okResponse.statusCode()).thenReturn(200);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(pending)
+                .thenReturn(CompletableFuture.completedFuture(okResponse));
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(baseUrl + "/plushie")).GET().build();
+
+        CompletableFuture<HttpResponse<String>> first = transport.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        CompletableFuture<HttpResponse<String>> second = transport.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        CompletableFuture<HttpResponse<String>> third = transport.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+
+        assertThrows(RateLimitedException.class, () -> HttpTransport.await(third));
+        verify(mockHttpClient, times(1)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+
+        pending.complete(okResponse);
+
+        assertEquals(200, HttpTransport.await(first).statusCode());
+        assertEquals(200, HttpTransport.await(second).statusCode());
+        assertEquals(0, transport.limiter("plushie").getInFlight());
+    }
+
+    @Test
+    void prewarm_ShouldOpenConnectionToEveryReplica() throws Exception {
+        HttpTransport balanced = new HttpTransport(new BackendBalancer(
+                List.of("http://replica-a:8080", "http://replica-b:8080"), BackendBalancer.Strategy.ROUND_ROBIN),
+                mockHttpClient);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.failedFuture(new ConnectException("Connection refused")));
+
+        // A replica that can't be reached doesn't fail the warm-up
+        balanced.prewarm().get();
+
+        ArgumentCaptor<HttpRequest> requests = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(mockHttpClient, times(2)).sendAsync(requests.capture(), any());
+        assertEquals(List.of("replica-a", "replica-b"),
+                requests.getAllValues().stream().map(request -> request.uri().getHost()).toList());
+        assertTrue(requests.getAllValues().stream().allMatch(request -> request.method().equals("HEAD")));
+    }
+
+    @Test
+    void keepWarm_ShouldPingOnlyOnceIdleLongEnoughAndInsideTheKeepAlive() {
+        AtomicLong clock = new AtomicLong();
+        HttpTransport warmed = new HttpTransport(
+                new BackendBalancer(List.of(baseUrl), BackendBalancer.Strategy.ROUND_ROBIN), mockHttpClient, clock::get);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.failedFuture(new ConnectException("Connection refused")));
+
+        // Worst case a check runs just before the idle threshold and the next one a period later
+        assertTrue(HttpTransport.KEEP_WARM_IDLE.plus(HttpTransport.KEEP_WARM_CHECK_PERIOD)
+                .compareTo(Duration.ofSeconds(30)) < 0);
+
+        clock.set(HttpTransport.KEEP_WARM_IDLE.minusSeconds(1).toNanos());
+        warmed.keepWarm();
+        verify(mockHttpClient, never()).sendAsync(any(HttpRequest.class), any());
+
+        clock.set(HttpTransport.KEEP_WARM_IDLE.toNanos());
+        warmed.keepWarm();
+        verify(mockHttpClient, times(1)).sendAsync(any(HttpRequest.class), any());
+
+        // The ping itself counts as activity, so the next check a period later stays quiet
+        clock.addAndGet(HttpTransport.KEEP_WARM_CHECK_PERIOD.toNanos());
+        warmed.keepWarm();
+        verify(mockHttpClient, times(1)).sendAsync(any(HttpRequest.class), any());
+    }
+}
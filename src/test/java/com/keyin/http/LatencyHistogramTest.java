@@ -0,0 +1,26 @@
+package com.keyin.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void valueAtPercentile_ShouldStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.recordMicros(micros);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(5_000, histogram.valueAtPercentile(50), 5_000 * 0.07);
+        assertEquals(9_900, histogram.valueAtPercentile(99), 9_900 * 0.07);
+        assertEquals(10_000, histogram.getMaxMicros());
+    }
+
+    @Test
+    void valueAtPercentile_WhenEmpty_ShouldBeZero() {
+        assertEquals(0, new LatencyHistogram().valueAtPercentile(95));
+    }
+}
@@ -0,0 +1,180 @@
+package com.keyin.http;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MutationBatcherTest {
+
+    private final String baseUrl = "http://localhost:8080";
+
+    @Mock
+    private HttpClient mockHttpClient;
+
+    @Mock
+    private HttpResponse<Object> okResponse;
+
+    @Mock
+    private HttpResponse<Object> errorResponse;
+
+    private MutationBatcher mutationBatcher;
+
+    @BeforeEach
+    void setUp() {
+        mutationBatcher = new MutationBatcher(new HttpTransport(baseUrl, mockHttpClient));
+    }
+
+    @Test
+    void submit_WithoutCompositeEndpoint_ShouldPipelineEveryWrite() {
+        AtomicInteger successHooks = new AtomicInteger();
+        when(okResponse.statusCode()).thenReturn(200);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(okResponse));
+
+        MutationBatcher.Result result = mutationBatcher.submit(
+                new MutationBatcher.Mutation("PUT", URI.create(baseUrl + "/location/2"), "{\"completed\":true}",
+                        successHooks::incrementAndGet),
+                new MutationBatcher.Mutation("PUT", URI.create(baseUrl + "/plushie/1/collect"), "{}",
+                        successHooks::incrementAndGet)
+        ).join();
+
+        assertTrue(result.allSucceeded());
+        assertEquals(2, successHooks.get());
+        verify(mockHttpClient, times(2)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void submit_WhenOneWriteFails_ShouldReportItAndSkipItsHook() {
+        AtomicInteger successHooks = new AtomicInteger();
+        when(okResponse.statusCode()).thenReturn(200);
+        when(errorResponse.statusCode()).thenReturn(500);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(okResponse))
+                .thenReturn(CompletableFuture.completedFuture(errorResponse));
+
+        MutationBatcher.Result result = mutationBatcher.submit(
+                new MutationBatcher.Mutation("PUT", URI.create(baseUrl + "/location/2"), null,
+                        successHooks::incrementAndGet),
+                new MutationBatcher.Mutation("PUT", URI.create(baseUrl + "/plushie/1/collect"), null,
+                        successHooks::incrementAndGet)
+        ).join();
+
+        assertFalse(result.allSucceeded());
+        assertTrue(result.get(0).succeeded());
+        assertEquals(500, result.get(1).statusCode());
+        assertEquals(1, successHooks.get());
+    }
+
+    @Test
+    void submit_WithCompositeEndpoint_ShouldSendOneRequestAndMapStatuses() {
+        mutationBatcher.setCompositeEndpoint(URI.create(baseUrl + "/batch"));
+        when(okResponse.statusCode()).thenReturn(200);
+        when(okResponse.body()).thenReturn(new ByteArrayInputStream(
+                "[{\"status\":200},{\"status\":409}]".getBytes(StandardCharsets.UTF_8)));
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(okResponse));
+
+        MutationBatcher.Result result = mutationBatcher.submit(
+                new MutationBatcher.Mutation("PUT", URI.create(baseUrl + "/location/2"), "{\"completed\":true}"),
+                new MutationBatcher.Mutation("PUT", URI.create(baseUrl + "/plushie/1/collect"), "{}")
+        ).join();
+
+        assertTrue(result.get(0).succeeded());
+        assertEquals(409, result.get(1).statusCode());
+        verify(mockHttpClient, times(1)).sendAsync(argThat(request ->
+                request.uri().getPath().equals("/batch")), any());
+    }
+
+    @Test
+    void submit_WhenCompositeEndpointIsMissing_ShouldFallBackToPipelining() {
+        mutationBatcher.setCompositeEndpoint(URI.create(baseUrl + "/batch"));
+        when(errorResponse.statusCode()).thenReturn(404);
+        when(okResponse.statusCode()).thenReturn(200);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                        invocation.<HttpRequest>getArgument(0).uri().getPath().equals("/batch")
+                                ? errorResponse
+                                : okResponse));
+
+        MutationBatcher.Result result = mutationBatcher.submit(
+                new MutationBatcher.Mutation("PUT", URI.create(baseUrl + "/location/2"), null),
+                new MutationBatcher.Mutation("PUT", URI.create(baseUrl + "/plushie/1/collect"), null)
+        ).join();
+
+        assertTrue(result.allSucceeded());
+        // The batch endpoint is tried once, then each write goes out on its own
+        verify(mockHttpClient, times(3)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void submit_WhenCompositeRequestFails_ShouldReportEveryWriteAsFailed() {
+        mutationBatcher.setCompositeEndpoint(URI.create(baseUrl + "/batch"));
+        when(errorResponse.statusCode()).thenReturn(400);
+        when(errorResponse.body()).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(errorResponse));
+
+        MutationBatcher.Result result = mutationBatcher.submit(
+                new MutationBatcher.Mutation("PUT", URI.create(baseUrl + "/location/2"), null),
+                new MutationBatcher.Mutation("PUT", URI.create(baseUrl + "/plushie/1/collect"), null)
+        ).join();
+
+        assertEquals(2, result.outcomes().size());
+        assertEquals(400, result.get(0).statusCode());
+        assertTrue(result.get(1).error().getMessage().contains("HTTP 400"));
+    }
+
+    @Test
+    void submit_WithOtherWritesQueued_ShouldReturnOnlyItsOwnOutcomes() {
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.failedFuture(new ConnectException("Connection refused")));
+        MutationBatcher.Mutation queued = new MutationBatcher.Mutation("PUT", URI.create(baseUrl + "/location/3"), null);
+        MutationBatcher.Mutation submitted = new MutationBatcher.Mutation("PUT", URI.create(baseUrl + "/location/2"), null);
+        CompletableFuture<MutationBatcher.Outcome> queuedOutcome = mutationBatcher.enqueue(queued);
+
+        MutationBatcher.Result result = mutationBatcher.submit(submitted).join();
+
+        assertEquals(List.of(submitted), result.outcomes().stream().map(MutationBatcher.Outcome::mutation).toList());
+        assertFalse(result.get(0).succeeded());
+        assertSame(queued, queuedOutcome.join().mutation());
+        assertEquals(new MutationBatcher.Result(List.of()), mutationBatcher.flush().join());
+    }
+
+    @Test
+    void submitInOrder_WhenFirstWriteFails_ShouldSkipTheDependentOne() {
+        AtomicInteger successHooks = new AtomicInteger();
+        when(errorResponse.statusCode()).thenReturn(404);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(errorResponse));
+
+        MutationBatcher.Result result = mutationBatcher.submitInOrder(
+                new MutationBatcher.Mutation("PUT", URI.create(baseUrl + "/location/99"), null,
+                        successHooks::incrementAndGet),
+                new MutationBatcher.Mutation("PUT", URI.create(baseUrl + "/plushie/98/collect"), null,
+                        successHooks::incrementAndGet)
+        ).join();
+
+        assertEquals(404, result.get(0).statusCode());
+        assertEquals(MutationBatcher.FAILED_DEPENDENCY, result.get(1).statusCode());
+        assertEquals(0, successHooks.get());
+        verify(mockHttpClient, times(1)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+}
@@ -0,0 +1,78 @@
+package com.keyin.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestLimiterTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(10);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void acquire_BeyondMaxInFlight_ShouldQueueUntilReleased() {
+        RequestLimiter limiter = new RequestLimiter("plushie", new RequestLimiter.Limits(0, 1, 2, 1), clock::get);
+
+        assertTrue(limiter.acquire(WAIT).isDone());
+        assertTrue(limiter.acquire(WAIT).isDone());
+        CompletableFuture<Void> queued = limiter.acquire(WAIT);
+        assertFalse(queued.isDone());
+        assertEquals(1, limiter.getQueued());
+
+        limiter.release();
+
+        assertTrue(queued.isDone());
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    void acquire_WhenQueueIsFull_ShouldRejectEarly() {
+        RequestLimiter limiter = new RequestLimiter("plushie", new RequestLimiter.Limits(0, 1, 1, 1), clock::get);
+        limiter.acquire(WAIT);
+        limiter.acquire(WAIT);
+
+        CompletableFuture<Void> rejected = limiter.acquire(WAIT);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(RateLimitedException.class, exception.getCause());
+    }
+
+    @Test
+    void acquire_BeyondBurst_ShouldWaitForTokens() {
+        RequestLimiter limiter = new RequestLimiter("location", new RequestLimiter.Limits(10, 2, 10, 5), clock::get);
+
+        assertTrue(limiter.acquire(WAIT).isDone());
+        assertTrue(limiter.acquire(WAIT).isDone());
+        CompletableFuture<Void> queued = limiter.acquire(WAIT);
+        assertFalse(queued.isDone());
+
+        // 10 per second: the next token is due after 100 ms
+        clock.addAndGet(Duration.ofMillis(50).toNanos());
+        limiter.drain();
+        assertFalse(queued.isDone());
+
+        clock.addAndGet(Duration.ofMillis(50).toNanos());
+        limiter.drain();
+        assertTrue(queued.isDone());
+    }
+
+    @Test
+    void acquire_WhenStillQueuedAfterMaxWait_ShouldReject() throws Exception {
+        RequestLimiter limiter = new RequestLimiter("location", new RequestLimiter.Limits(0, 1, 1, 5), clock::get);
+        limiter.acquire(WAIT);
+
+        CompletableFuture<Void> queued = limiter.acquire(Duration.ofMillis(20));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RateLimitedException.class, exception.getCause());
+        assertEquals(0, limiter.getQueued());
+    }
+}
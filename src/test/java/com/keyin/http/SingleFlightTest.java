@@ -0,0 +1,58 @@
+package com.keyin.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    @Test
+    void execute_WhileCallInFlight_ShouldShareOneCall() {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> response = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.execute("GET /location", () -> {
+            calls.incrementAndGet();
+            return response;
+        });
+        CompletableFuture<String> second = singleFlight.execute("GET /location", () -> {
+            calls.incrementAndGet();
+            return response;
+        });
+
+        response.complete("locations");
+
+        assertEquals(1, calls.get());
+        assertEquals("locations", first.join());
+        assertEquals("locations", second.join());
+        assertEquals(0, singleFlight.size());
+    }
+
+    @Test
+    void execute_AfterCallCompleted_ShouldStartNewCall() {
+        AtomicInteger calls = new AtomicInteger();
+
+        singleFlight.execute("GET /plushie", () -> CompletableFuture.completedFuture(calls.incrementAndGet())).join();
+        int second = singleFlight.execute("GET /plushie",
+                () -> CompletableFuture.completedFuture(calls.incrementAndGet())).join();
+
+        assertEquals(2, second);
+    }
+
+    @Test
+    void execute_WhenOneCallerCancels_ShouldNotAffectOthers() {
+        CompletableFuture<String> response = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.execute("GET /location", () -> response);
+        CompletableFuture<String> second = singleFlight.execute("GET /location", () -> response);
+        first.cancel(true);
+        response.complete("locations");
+
+        assertEquals("locations", second.join());
+    }
+}
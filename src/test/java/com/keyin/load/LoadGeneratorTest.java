@@ -0,0 +1,36 @@
+package com.keyin.load;
+
+import com.keyin.standin.StandInBackend;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadGeneratorTest {
+
+    @Test
+    void run_AgainstStandIn_ShouldReportEveryEndpoint() throws Exception {
+        try (StandInBackend backend = new StandInBackend(0).start()) {
+            LoadGenerator.Report report = new LoadGenerator(backend.getBaseUrl(), 4, 2).run();
+
+            assertEquals(0, report.getErrors());
+            assertEquals(8, report.endpoints().get("POST /api/heroes").count());
+            // Five playable locations per round
+            assertEquals(40, report.endpoints().get("PUT /location/{id}").count());
+            assertTrue(report.endpoints().get("GET /location").p999() > 0);
+            assertTrue(report.getThroughput() > 0);
+            assertTrue(report.format().contains("PUT /plushie/{id}/collect"));
+        }
+    }
+
+    @Test
+    void run_WhenBackendFails_ShouldCountErrorsPerEndpoint() throws Exception {
+        try (StandInBackend backend = new StandInBackend(0).start()) {
+            backend.setErrorRate(1.0);
+
+            LoadGenerator.Report report = new LoadGenerator(backend.getBaseUrl(), 1, 1).run();
+
+            assertEquals(1, report.endpoints().get("POST /api/heroes").errors());
+            assertEquals(1.0, report.getErrorRate());
+        }
+    }
+}
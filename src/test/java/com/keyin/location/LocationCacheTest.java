@@ -0,0 +1,57 @@
+package com.keyin.location;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocationCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private CompletableFuture<List<LocationDTO>> loadLocations() {
+        LocationDTO location = new LocationDTO();
+        location.setId((long) loads.incrementAndGet());
+        location.setName("Forest");
+        return CompletableFuture.completedFuture(List.of(location));
+    }
+
+    @Test
+    void get_WhenFresh_ShouldServeCachedListWithoutLoading() {
+        LocationCache cache = new LocationCache(this::loadLocations, Duration.ofMinutes(5));
+
+        List<LocationDTO> first = cache.get().join();
+        List<LocationDTO> second = cache.get().join();
+
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+    }
+
+    @Test
+    void get_WhenStale_ShouldServeOldListAndRevalidate() {
+        LocationCache cache = new LocationCache(this::loadLocations, Duration.ZERO);
+
+        cache.get().join();
+        List<LocationDTO> stale = cache.get().join();
+
+        assertEquals(1L, stale.get(0).getId());
+        assertEquals(2, loads.get());
+        assertEquals(2L, cache.peek().get(0).getId());
+    }
+
+    @Test
+    void invalidate_ShouldForceNextReadToLoad() {
+        LocationCache cache = new LocationCache(this::loadLocations, Duration.ofMinutes(5));
+
+        cache.get().join();
+        cache.invalidate();
+        List<LocationDTO> result = cache.get().join();
+
+        assertEquals(2, loads.get());
+        assertEquals(2L, result.get(0).getId());
+    }
+}
@@ -1,18 +1,25 @@
 package com.keyin.location;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.keyin.http.HttpTransport;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -22,21 +29,21 @@ import static org.mockito.Mockito.*;
 public class LocationServiceTest {
 
     private LocationService locationService;
+    private HttpTransport transport;
     private final String baseUrl = "http://localhost:8080";
 
     @Mock
     private HttpClient mockHttpClient;
 
     @Mock
-    private HttpResponse<String> mockResponse;
+    private HttpResponse<InputStream> mockResponse;
 
     private ObjectMapper realObjectMapper;
 
     @BeforeEach
     void setUp() throws Exception {
-        locationService = new LocationService(baseUrl);
-
-        setPrivateField(locationService, "client", mockHttpClient);
+        transport = new HttpTransport(baseUrl, mockHttpClient);
+        locationService = new LocationService(transport);
 
         realObjectMapper = new ObjectMapper();
     }
@@ -55,10 +62,11 @@ public class LocationServiceTest {
         expectedLocations.add(location2);
 
         when(mockResponse.statusCode()).thenReturn(200);
-        when(mockResponse.body()).thenReturn(realObjectMapper.writeValueAsString(expectedLocations));
+        when(mockResponse.body()).thenReturn(new ByteArrayInputStream(realObjectMapper.writeValueAsBytes(expectedLocations)));
+        when(mockResponse.headers()).thenReturn(HttpHeaders.of(Map.of(), (name, value) -> true));
 
-        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
-                .thenReturn(mockResponse);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
 
         List<LocationDTO> result = locationService.getAllLocations();
 
@@ -69,7 +77,7 @@ public class LocationServiceTest {
         assertEquals(2L, result.get(1).getId());
         assertEquals("Mountain", result.get(1).getName());
 
-        verify(mockHttpClient).send(argThat(request -> {
+        verify(mockHttpClient).sendAsync(argThat(request -> {
             URI uri = request.uri();
             assertEquals(baseUrl + "/location", uri.toString());
 
@@ -79,11 +87,67 @@ public class LocationServiceTest {
         }), any());
     }
 
+    @Test
+    void applyLocationCompleted_ShouldUpdateCachedLocationWithoutRefetching() throws Exception {
+        LocationDTO location = new LocationDTO();
+        location.setId(3L);
+        location.setName("Shadow Valley");
+
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn(new ByteArrayInputStream(realObjectMapper.writeValueAsBytes(List.of(location))));
+        when(mockResponse.headers()).thenReturn(HttpHeaders.of(Map.of(), (name, value) -> true));
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
+        List<LocationDTO> before = locationService.getAllLocations();
+
+        AtomicInteger changes = new AtomicInteger();
+        locationService.addChangeListener(changes::incrementAndGet);
+        locationService.applyLocationCompleted(3L);
+
+        assertTrue(locationService.getAllLocations().get(0).isCompleted());
+        assertFalse(before.get(0).isCompleted());
+        assertEquals(1, changes.get());
+        verify(mockHttpClient, times(1)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void previewReset_ShouldReturnResetCopiesAndLeaveCacheAlone() throws Exception {
+        LocationDTO location = new LocationDTO();
+        location.setId(3L);
+        location.setName("Shadow Valley");
+        location.setCompleted(true);
+
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn(new ByteArrayInputStream(realObjectMapper.writeValueAsBytes(List.of(location))));
+        when(mockResponse.headers()).thenReturn(HttpHeaders.of(Map.of(), (name, value) -> true));
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
+        locationService.getAllLocations();
+
+        List<LocationDTO> preview = locationService.previewReset();
+
+        assertEquals("Shadow Valley", preview.get(0).getName());
+        assertFalse(preview.get(0).isCompleted());
+        assertTrue(locationService.getCachedLocations().get(0).isCompleted());
+        verify(mockHttpClient, times(1)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void invalidate_ShouldAlsoDropConditionalCacheEntry() throws Exception {
+        URI catalogUri = URI.create(baseUrl + "/location");
+        transport.getConditionalCache().store(catalogUri,
+                HttpHeaders.of(Map.of("ETag", List.of("\"v1\"")), (name, value) -> true), List.of());
+
+        locationService.invalidate();
+
+        assertNull(transport.getConditionalCache().get(catalogUri));
+    }
+
     @Test
     void getAllLocations_WhenServerReturnsError_ShouldThrowException() throws Exception {
         when(mockResponse.statusCode()).thenReturn(500);
-        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
-                .thenReturn(mockResponse);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             locationService.getAllLocations();
@@ -91,14 +155,4 @@ public class LocationServiceTest {
 
         assertTrue(exception.getMessage().contains("Failed to get locations"));
     }
-
-    private void setPrivateField(Object target, String fieldName, Object value) {
-        try {
-            java.lang.reflect.Field field = target.getClass().getDeclaredField(fieldName);
-            field.setAccessible(true);
-            field.set(target, value);
-        } catch (Exception e) {
-            throw new RuntimeException("Could not set field: " + fieldName, e);
-        }
-    }
 }
\ No newline at end of file
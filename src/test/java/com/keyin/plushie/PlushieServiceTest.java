@@ -1,18 +1,25 @@
 package com.keyin.plushie;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.keyin.http.DeltaSync;
+import com.keyin.http.HttpTransport;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,14 +35,13 @@ public class PlushieServiceTest {
     private HttpClient mockHttpClient;
 
     @Mock
-    private HttpResponse<String> mockResponse;
+    private HttpResponse<InputStream> mockResponse;
 
     private ObjectMapper realObjectMapper;
 
     @BeforeEach
     void setUp() throws Exception {
-        plushieService = new PlushieService(baseUrl);
-        setPrivateField(plushieService, "client", mockHttpClient);
+        plushieService = new PlushieService(new HttpTransport(baseUrl, mockHttpClient));
         realObjectMapper = new ObjectMapper();
     }
 
@@ -46,9 +52,10 @@ public class PlushieServiceTest {
         expectedPlushies.add(new PlushieDTO(2L, "Rabbit", "White", false, "Fluffy"));
 
         when(mockResponse.statusCode()).thenReturn(200);
-        when(mockResponse.body()).thenReturn(realObjectMapper.writeValueAsString(expectedPlushies));
-        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
-                .thenReturn(mockResponse);
+        when(mockResponse.body()).thenReturn(new ByteArrayInputStream(realObjectMapper.writeValueAsBytes(expectedPlushies)));
+        when(mockResponse.headers()).thenReturn(HttpHeaders.of(Map.of(), (name, value) -> true));
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
 
         List<PlushieDTO> result = plushieService.getAllPlushies();
 
@@ -59,7 +66,7 @@ public class PlushieServiceTest {
         assertEquals(2L, result.get(1).getId());
         assertEquals("Rabbit", result.get(1).getName());
 
-        verify(mockHttpClient).send(argThat(request -> {
+        verify(mockHttpClient).sendAsync(argThat(request -> {
             URI uri = request.uri();
             assertEquals(baseUrl + "/plushie", uri.toString());
             assertEquals("GET", request.method());
@@ -67,11 +74,36 @@ public class PlushieServiceTest {
         }), any());
     }
 
+    @Test
+    void getAllPlushies_WhenNotModified_ShouldReturnCachedPlushies() throws Exception {
+        List<PlushieDTO> expectedPlushies = List.of(new PlushieDTO(1L, "Bear", "Brown", true, "Soft"));
+
+        @SuppressWarnings("unchecked")
+        HttpResponse<InputStream> notModifiedResponse = mock(HttpResponse.class);
+        when(notModifiedResponse.statusCode()).thenReturn(304);
+
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn(new ByteArrayInputStream(realObjectMapper.writeValueAsBytes(expectedPlushies)));
+        when(mockResponse.headers()).thenReturn(HttpHeaders.of(Map.of("ETag", List.of("\"v1\"")), (name, value) -> true));
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse))
+                .thenReturn(CompletableFuture.completedFuture(notModifiedResponse));
+
+        List<PlushieDTO> first = plushieService.getAllPlushies();
+        List<PlushieDTO> second = plushieService.getAllPlushies();
+
+        assertSame(first, second);
+        assertEquals("Bear", second.get(0).getName());
+
+        verify(mockHttpClient).sendAsync(argThat(request ->
+                "\"v1\"".equals(request.headers().firstValue("If-None-Match").orElse(null))), any());
+    }
+
     @Test
     void getAllPlushies_WhenServerReturnsError_ShouldThrowException() throws Exception {
         when(mockResponse.statusCode()).thenReturn(500);
-        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
-                .thenReturn(mockResponse);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             plushieService.getAllPlushies();
@@ -84,12 +116,12 @@ public class PlushieServiceTest {
     void collectPlushie_ShouldSendPutRequest() throws Exception {
         Long plushieId = 1L;
         when(mockResponse.statusCode()).thenReturn(200);
-        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
-                .thenReturn(mockResponse);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
 
         assertDoesNotThrow(() -> plushieService.collectPlushie(plushieId));
 
-        verify(mockHttpClient).send(argThat(request -> {
+        verify(mockHttpClient).sendAsync(argThat(request -> {
             URI uri = request.uri();
             assertEquals(baseUrl + "/plushie/" + plushieId + "/collect", uri.toString());
             assertEquals("PUT", request.method());
@@ -101,8 +133,8 @@ public class PlushieServiceTest {
     void collectPlushie_WhenServerReturnsError_ShouldThrowException() throws Exception {
         Long plushieId = 1L;
         when(mockResponse.statusCode()).thenReturn(500);
-        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
-                .thenReturn(mockResponse);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             plushieService.collectPlushie(plushieId);
@@ -111,13 +143,64 @@ public class PlushieServiceTest {
         assertTrue(exception.getMessage().contains("Failed to collect plushie"));
     }
 
-    private void setPrivateField(Object target, String fieldName, Object value) {
-        try {
-            java.lang.reflect.Field field = target.getClass().getDeclaredField(fieldName);
-            field.setAccessible(true);
-            field.set(target, value);
-        } catch (Exception e) {
-            throw new RuntimeException("Could not set field: " + fieldName, e);
-        }
+    @Test
+    void streamPlushies_ShouldFetchPagesOnlyAsTheyAreConsumed() throws Exception {
+        HttpResponse<InputStream> secondPage = mock(HttpResponse.class);
+        stubPage(mockResponse, List.of(new PlushieDTO(1L, "Owl", null, true, null),
+                new PlushieDTO(2L, "Fox", null, true, null)));
+        stubPage(secondPage, List.of(new PlushieDTO(3L, "Cat", null, true, null)));
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(invocation -> {
+                    HttpRequest request = invocation.getArgument(0);
+                    return CompletableFuture.completedFuture(
+                            request.uri().getQuery().contains("page=0") ? mockResponse : secondPage);
+                });
+
+        assertEquals(2, plushieService.streamPlushies(true, 2).limit(2).count());
+        verify(mockHttpClient, times(1)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+
+        List<PlushieDTO> all = plushieService.streamPlushies(true, 2).toList();
+        assertEquals(List.of(1L, 2L, 3L), all.stream().map(PlushieDTO::getId).toList());
+        verify(mockHttpClient).sendAsync(argThat(request ->
+                "collected=true&page=1&size=2".equals(request.uri().getQuery())), any());
+    }
+
+    @Test
+    void streamPlushies_WhenBackendIgnoresPaging_ShouldFilterClientSide() throws Exception {
+        stubPage(mockResponse, List.of(new PlushieDTO(1L, "Owl", null, true, null),
+                new PlushieDTO(2L, "Fox", null, false, null),
+                new PlushieDTO(3L, "Cat", null, true, null)));
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
+
+        List<PlushieDTO> collected = plushieService.streamPlushies(true, 2).toList();
+
+        assertEquals(List.of(1L, 3L), collected.stream().map(PlushieDTO::getId).toList());
+        verify(mockHttpClient, times(1)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void streamCollectedPlushies_OnceSynced_ShouldServeCatalogAndOwnCollects() throws Exception {
+        stubPage(mockResponse, List.of(new PlushieDTO(1L, "Owl", null, true, null),
+                new PlushieDTO(2L, "Fox", null, false, null)));
+        when(mockResponse.headers()).thenReturn(HttpHeaders.of(
+                Map.of(DeltaSync.VERSION_HEADER, List.of("4")), (name, value) -> true));
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
+        HttpTransport.await(plushieService.syncPlushiesAsync());
+
+        plushieService.collectPlushie(2L);
+        List<PlushieDTO> collected = plushieService.streamCollectedPlushies().toList();
+
+        assertEquals(List.of(1L, 2L), collected.stream().map(PlushieDTO::getId).toList());
+        // The sync and the collect; the collected view itself needed no request
+        verify(mockHttpClient, times(2)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    private void stubPage(HttpResponse<InputStream> response, List<PlushieDTO> plushies) throws Exception {
+        byte[] body = realObjectMapper.writeValueAsBytes(plushies);
+        when(response.statusCode()).thenReturn(200);
+        when(response.body()).thenAnswer(invocation -> new ByteArrayInputStream(body));
+        when(response.headers()).thenReturn(HttpHeaders.of(Map.of(), (name, value) -> true));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,198 @@
+package com.keyin.standin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.keyin.hero.HeroCache;
+import com.keyin.hero.HeroDTO;
+import com.keyin.hero.HeroService;
+import com.keyin.http.BackendBalancer;
+import com.keyin.http.EventStream;
+import com.keyin.http.HttpMetrics;
+import com.keyin.http.HttpTransport;
+import com.keyin.http.MutationBatcher;
+import com.keyin.http.RetryPolicy;
+import com.keyin.location.LocationDTO;
+import com.keyin.location.LocationService;
+import com.keyin.plushie.PlushieDTO;
+import com.keyin.plushie.PlushieService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the real services over real HTTP against the stand-in backend
+ */
+public class StandInBackendTest {
+
+    private StandInBackend backend;
+    private HttpTransport transport;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        backend = new StandInBackend(0).start();
+        transport = new HttpTransport(backend.getBaseUrl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        backend.close();
+    }
+
+    @Test
+    void heroService_CreateAndUpdate_ShouldRoundTrip() throws Exception {
+        HeroService heroService = new HeroService(transport);
+
+        HeroDTO created = heroService.createHero("Link");
+        heroService.updateHero("Zelda");
+
+        HeroDTO fetched = heroService.getCurrentHero(HeroCache.Freshness.FORCE_FRESH);
+        assertEquals(created.getId(), fetched.getId());
+        assertEquals("Zelda", fetched.getName());
+    }
+
+    @Test
+    void locationService_AfterCompleting_ShouldSyncOnlyTheChange() throws Exception {
+        LocationService locationService = new LocationService(transport);
+
+        assertEquals(7, locationService.getAllLocations().size());
+        assertTrue(locationService.completeLocation(3L, null));
+        long before = backend.getRequestCount();
+
+        List<LocationDTO> synced = HttpTransport.await(locationService.syncLocationsAsync());
+
+        assertEquals(1, backend.getRequestCount() - before);
+        assertEquals(7, synced.size());
+        assertTrue(synced.stream().filter(location -> location.getId() == 3L).findFirst().orElseThrow().isCompleted());
+        assertEquals(1, locationService.getCompletedLocationsCount());
+    }
+
+    @Test
+    void plushieService_LargePayloads_ShouldPageCollectedPlushiesThroughGzip() throws Exception {
+        backend.setCatalogSize(40);
+        backend.setPayloadPadding(2_000);
+        PlushieService plushieService = new PlushieService(transport);
+
+        plushieService.collectPlushie(2L);
+        plushieService.collectPlushie(35L);
+
+        List<PlushieDTO> collected = plushieService.streamPlushies(true, 1).toList();
+        assertEquals(List.of(2L, 35L), collected.stream().map(PlushieDTO::getId).toList());
+        assertEquals(40, plushieService.getAllPlushies().size());
+
+        // Compressed on the wire: far fewer bytes than the ~80 KB of padded descriptions
+        HttpMetrics.Snapshot listing = transport.getMetrics().snapshot().stream()
+                .filter(snapshot -> snapshot.endpoint().equals("GET /plushie"))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(listing.bytesIn() > 0 && listing.bytesIn() < 40_000);
+    }
+
+    @Test
+    void idempotencyKey_WhenRetryRacesTheOriginal_ShouldApplyTheWriteOnce() throws Exception {
+        backend.setLatency(Duration.ofMillis(50));
+        // HTTP/1.1 so the requests go out side by side instead of waiting on an h2c upgrade
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(backend.getBaseUrl() + "/api/heroes"))
+                .header(HttpTransport.IDEMPOTENCY_KEY, "create-link")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Link\"}"))
+                .build();
+
+        List<CompletableFuture<HttpResponse<String>>> attempts = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            attempts.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+
+        HttpResponse<String> original = attempts.get(0).get();
+        for (CompletableFuture<HttpResponse<String>> retry : attempts) {
+            assertEquals(original.body(), retry.get().body());
+        }
+        // Only one hero was created: the next one gets the following id
+        HeroDTO created = new ObjectMapper().readValue(original.body(), HeroDTO.class);
+        assertEquals(created.getId() + 1, new HeroService(transport).createHero("Zelda").getId());
+    }
+
+    @Test
+    void mutationBatcher_InOrderThroughBatchEndpoint_ShouldSendOneRequestAndEnforceTheDependency() {
+        MutationBatcher mutationBatcher = new MutationBatcher(transport);
+        mutationBatcher.setCompositeEndpoint(URI.create(backend.getBaseUrl() + "/batch"));
+        LocationService locationService = new LocationService(transport);
+        PlushieService plushieService = new PlushieService(transport);
+        long before = backend.getRequestCount();
+
+        MutationBatcher.Result completed = mutationBatcher.submitInOrder(
+                locationService.completeLocationMutation(2L),
+                plushieService.collectPlushieMutation(1L)).join();
+        MutationBatcher.Result skipped = mutationBatcher.submitInOrder(
+                locationService.completeLocationMutation(99L),
+                plushieService.collectPlushieMutation(2L)).join();
+
+        assertEquals(2, backend.getRequestCount() - before);
+        assertTrue(completed.allSucceeded());
+        assertEquals(404, skipped.get(0).statusCode());
+        assertEquals(MutationBatcher.FAILED_DEPENDENCY, skipped.get(1).statusCode());
+        List<Long> collected = plushieService.streamCollectedPlushies().map(PlushieDTO::getId).toList();
+        assertEquals(List.of(1L), collected);
+    }
+
+    @Test
+    void transport_WhenBackendFailsEveryRequest_ShouldSurfaceTheError() {
+        backend.setErrorRate(1.0);
+        transport.setRetryPolicy(RetryPolicy.none());
+        PlushieService plushieService = new PlushieService(transport);
+
+        Exception exception = assertThrows(RuntimeException.class, plushieService::getAllPlushies);
+        assertTrue(exception.getMessage().contains("HTTP 503"));
+    }
+
+    @Test
+    void transport_WithReplicas_ShouldSpreadLoadAndEjectDeadOnes() throws Exception {
+        try (StandInBackend second = new StandInBackend(0).start()) {
+            HttpTransport balanced = new HttpTransport(new BackendBalancer(
+                    List.of(backend.getBaseUrl(), second.getBaseUrl()), BackendBalancer.Strategy.ROUND_ROBIN));
+            balanced.setHedgingEnabled(false);
+            LocationService locationService = new LocationService(balanced);
+
+            for (int i = 0; i < 4; i++) {
+                locationService.fetchAllLocationsAsync().get();
+            }
+            assertEquals(2, backend.getRequestCount());
+            assertEquals(2, second.getRequestCount());
+
+            second.close();
+            for (int i = 0; i < 6; i++) {
+                locationService.fetchAllLocationsAsync().get();
+            }
+            assertTrue(balanced.getBalancer().isEjected(balanced.getBalancer().getBackends().get(1)));
+        }
+    }
+
+    @Test
+    void eventStream_WhenLocationCompleted_ShouldReceivePushedEvent() throws Exception {
+        LocationService locationService = new LocationService(transport);
+        CountDownLatch pushed = new CountDownLatch(1);
+
+        try (EventStream events = new EventStream(transport, URI.create(backend.getBaseUrl() + "/events"))) {
+            events.on(LocationService.LOCATION_COMPLETED_EVENT, event -> pushed.countDown());
+            events.start();
+            // Give the stream a moment to connect before the change happens
+            Thread.sleep(300);
+
+            locationService.completeLocation(4L, null);
+
+            assertTrue(pushed.await(5, TimeUnit.SECONDS));
+        }
+    }
+}